@@ -5,12 +5,14 @@ import com.virnor.expedition.commands.ExpeditionTabCompleter;
 import com.virnor.expedition.data.DataManager;
 import com.virnor.expedition.gui.GUIManager;
 import com.virnor.expedition.hologram.HologramManager;
+import com.virnor.expedition.hologram.VisibilityManager;
 import com.virnor.expedition.listeners.*;
 import com.virnor.expedition.loot.LootManager;
 import com.virnor.expedition.managers.DamageTracker;
 import com.virnor.expedition.managers.ExpeditionManager;
 import com.virnor.expedition.managers.MobManager;
 import com.virnor.expedition.config.ConfigManager;
+import com.virnor.expedition.utils.EntityTags;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public class VirnorExpedition extends JavaPlugin {
@@ -24,17 +26,21 @@ public class VirnorExpedition extends JavaPlugin {
     private LootManager lootManager;
     private GUIManager guiManager;
     private HologramManager hologramManager;
+    private VisibilityManager visibilityManager;
     private DamageTracker damageTracker;
+    private EntityTags entityTags;
 
     @Override
     public void onEnable() {
         instance = this;
         
         // Initialize managers
+        entityTags = new EntityTags(this);
         configManager = new ConfigManager(this);
         dataManager = new DataManager(this);
         lootManager = new LootManager(this);
         hologramManager = new HologramManager(this);
+        visibilityManager = new VisibilityManager(this);
         mobManager = new MobManager(this);
         damageTracker = new DamageTracker(this);
         expeditionManager = new ExpeditionManager(this);
@@ -44,6 +50,7 @@ public class VirnorExpedition extends JavaPlugin {
         configManager.loadConfig();
         dataManager.loadData();
         lootManager.loadLoots();
+        dataManager.startAutoSave();
         
         // Register commands
         getCommand("expedition").setExecutor(new ExpeditionCommand(this));
@@ -56,9 +63,13 @@ public class VirnorExpedition extends JavaPlugin {
         getServer().getPluginManager().registerEvents(new GUIListener(this), this);
         getServer().getPluginManager().registerEvents(new MobTargetListener(this), this);
         getServer().getPluginManager().registerEvents(new DamageListener(this), this);
+        getServer().getPluginManager().registerEvents(new WorldListener(this), this);
+        getServer().getPluginManager().registerEvents(new EntityListener(this), this);
+        getServer().getPluginManager().registerEvents(new BlockListener(this), this);
         
         // Start tasks
         expeditionManager.startTasks();
+        mobManager.sweepLoadedChunks();
         
         getLogger().info("VirnorExpedition has been enabled!");
     }
@@ -119,6 +130,14 @@ public class VirnorExpedition extends JavaPlugin {
         return hologramManager;
     }
 
+    public VisibilityManager getVisibilityManager() {
+        return visibilityManager;
+    }
+
+    public EntityTags getEntityTags() {
+        return entityTags;
+    }
+
     public DamageTracker getDamageTracker() {
         return damageTracker;
     }
@@ -9,6 +9,8 @@ import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
+import java.io.File;
+
 public class ExpeditionCommand implements CommandExecutor {
 
     private final VirnorExpedition plugin;
@@ -67,6 +69,13 @@ public class ExpeditionCommand implements CommandExecutor {
                 }
                 handleReload(player);
             }
+            case "export" -> {
+                if (!player.hasPermission("expedition.admin")) {
+                    player.sendMessage(ColorUtils.colorize(config.getMsgPrefix() + config.getMsgNoPermission()));
+                    return true;
+                }
+                handleExport(player);
+            }
             default -> sendHelp(player);
         }
 
@@ -159,11 +168,25 @@ public class ExpeditionCommand implements CommandExecutor {
         plugin.reloadConfig();
         config.loadConfig();
         plugin.getLootManager().loadLoots();
+        plugin.getVisibilityManager().reload();
         plugin.getHologramManager().reloadHolograms();
         
         player.sendMessage(ColorUtils.colorize(config.getMsgPrefix() + config.getMsgConfigReloaded()));
     }
 
+    private void handleExport(Player player) {
+        ConfigManager config = plugin.getConfigManager();
+        File exportFile = new File(plugin.getDataFolder(), "data-export.yml");
+        
+        plugin.getDataManager().exportData(exportFile, success -> {
+            if (success) {
+                player.sendMessage(ColorUtils.colorize(config.getMsgPrefix() + "&aChest verileri &f" + exportFile.getName() + " &adosyasına aktarıldı!"));
+            } else {
+                player.sendMessage(ColorUtils.colorize(config.getMsgPrefix() + "&cChest verileri dışa aktarılırken bir hata oluştu!"));
+            }
+        });
+    }
+
     private void sendHelp(Player player) {
         player.sendMessage(ColorUtils.colorize("&6&l=== Expedition Komutları ==="));
         player.sendMessage(ColorUtils.colorize("&e/expedition set &7- Baktığın yere expedition chest koy"));
@@ -171,6 +194,7 @@ public class ExpeditionCommand implements CommandExecutor {
         player.sendMessage(ColorUtils.colorize("&e/expedition remove [id] &7- Expedition chest sil"));
         player.sendMessage(ColorUtils.colorize("&e/expedition list &7- Tüm expedition chestleri listele"));
         player.sendMessage(ColorUtils.colorize("&e/expedition reload &7- Configleri yeniden yükle"));
+        player.sendMessage(ColorUtils.colorize("&e/expedition export &7- Chest verilerini YAML olarak dışa aktar"));
         player.sendMessage(ColorUtils.colorize(""));
         player.sendMessage(ColorUtils.colorize("&6&lPermissions:"));
         player.sendMessage(ColorUtils.colorize("&e expedition.admin &7- Admin komutları"));
@@ -10,7 +10,7 @@ import java.util.List;
 
 public class ExpeditionTabCompleter implements TabCompleter {
 
-    private final List<String> mainCommands = Arrays.asList("set", "admin", "remove", "list", "reload");
+    private final List<String> mainCommands = Arrays.asList("set", "admin", "remove", "list", "reload", "export");
 
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
@@ -1,6 +1,8 @@
 package com.virnor.expedition.config;
 
 import com.virnor.expedition.VirnorExpedition;
+import com.virnor.expedition.managers.GuardianArchetype;
+import com.virnor.expedition.utils.HealthBarGlyphs;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.EntityType;
 
@@ -12,6 +14,7 @@ public class ConfigManager {
     private EntityType mobType;
     private double mobHealth;
     private double mobDamage;
+    private GuardianArchetype guardianArchetype;
     private int mobCount;
     private String mobName;
     
@@ -24,6 +27,7 @@ public class ConfigManager {
     private String healthBarLowColor;
     private String healthBarBackgroundColor;
     private double healthBarHeightOffset;
+    private HealthBarGlyphs healthBarGlyphs;
     
     // Loot winner mode
     private String lootWinnerMode;
@@ -31,6 +35,7 @@ public class ConfigManager {
     // Distance settings
     private double spawnDistance;
     private double teleportDistance;
+    private double leashDistance;
     private double mobSpawnRadius;
     
     // Time settings
@@ -39,15 +44,32 @@ public class ConfigManager {
     
     // Hologram settings
     private boolean hologramEnabled;
+    private String hologramType;
+    private double hologramViewRange;
+    private double hologramVisibleRadius;
     private double hologramHeightOffset;
     private double hologramLineSpacing;
     private String hologramTitle;
     private String hologramStatusReady;
     private String hologramStatusFighting;
+    private String hologramStatusSpawning;
     private String hologramStatusOwner;
     private String hologramStatusTimeLeft;
     private String hologramStatusCooldown;
     
+    // Storage settings
+    private String storageType;
+    private int saveInterval;
+    private int journalCompactSize;
+    
+    // Performance settings
+    private int tickBudget;
+    private double activeRadius;
+    private int spawnsPerTick;
+    private int maxActivePerWorld;
+    private int idleAwareTimeout;
+    private int idleResetTimeout;
+    
     // Messages
     private String msgPrefix;
     private String msgMobsSpawned;
@@ -96,6 +118,7 @@ public class ConfigManager {
         mobDamage = config.getDouble("mob.damage", 5.0);
         mobCount = config.getInt("mob.count", 3);
         mobName = config.getString("mob.name", "&c&lExpedition Guardian");
+        rebuildGuardianArchetype();
         
         // Mob health bar settings
         showHealthBar = config.getBoolean("mob.showHealthBar", true);
@@ -106,6 +129,8 @@ public class ConfigManager {
         healthBarLowColor = config.getString("mob.healthBarLowColor", "&c");
         healthBarBackgroundColor = config.getString("mob.healthBarBackgroundColor", "&8");
         healthBarHeightOffset = config.getDouble("mob.healthBarHeightOffset", 0.5);
+        healthBarGlyphs = new HealthBarGlyphs(healthBarTotalBars, healthBarSymbol, healthBarHighColor,
+            healthBarMediumColor, healthBarLowColor, healthBarBackgroundColor);
         
         // Loot winner mode
         lootWinnerMode = config.getString("lootWinnerMode", "MOST_DAMAGE");
@@ -113,6 +138,7 @@ public class ConfigManager {
         // Distance settings
         spawnDistance = config.getDouble("distances.spawn", 10.0);
         teleportDistance = config.getDouble("distances.teleport", 20.0);
+        leashDistance = config.getDouble("distances.leash", 12.0);
         mobSpawnRadius = config.getDouble("distances.mobSpawnRadius", 3.0);
         
         // Time settings
@@ -121,15 +147,32 @@ public class ConfigManager {
         
         // Hologram settings
         hologramEnabled = config.getBoolean("hologram.enabled", true);
+        hologramType = config.getString("hologram.type", "TEXT_DISPLAY");
+        hologramViewRange = config.getDouble("hologram.viewRange", 32.0);
+        hologramVisibleRadius = config.getDouble("hologram.visibleRadius", 32.0);
         hologramHeightOffset = config.getDouble("hologram.heightOffset", 2.0);
         hologramLineSpacing = config.getDouble("hologram.lineSpacing", 0.3);
         hologramTitle = config.getString("hologram.title", "&6&lExpedition Chest");
         hologramStatusReady = config.getString("hologram.statusReady", "&aHazır!");
         hologramStatusFighting = config.getString("hologram.statusFighting", "&c&lSavaş!");
+        hologramStatusSpawning = config.getString("hologram.statusSpawning", "&e&lMoblar geliyor...");
         hologramStatusOwner = config.getString("hologram.statusOwner", "&aSahip: &f%player%");
         hologramStatusTimeLeft = config.getString("hologram.statusTimeLeft", "&eKalan: &f%time%");
         hologramStatusCooldown = config.getString("hologram.statusCooldown", "&cCooldown: &f%time%");
         
+        // Storage settings
+        storageType = config.getString("storage.type", "FILE");
+        saveInterval = Math.max(1, config.getInt("storage.saveInterval", 100));
+        journalCompactSize = Math.max(1, config.getInt("storage.journalCompactSize", 512));
+        
+        // Performance settings
+        tickBudget = Math.max(0, config.getInt("performance.tickBudget", 2000));
+        activeRadius = config.getDouble("performance.activeRadius", 48.0);
+        spawnsPerTick = Math.max(1, config.getInt("performance.spawnsPerTick", 4));
+        maxActivePerWorld = Math.max(0, config.getInt("performance.maxActivePerWorld", 16));
+        idleAwareTimeout = Math.max(0, config.getInt("performance.idleAwareTimeout", 30));
+        idleResetTimeout = Math.max(0, config.getInt("performance.idleResetTimeout", 300));
+        
         // Messages
         msgPrefix = config.getString("messages.prefix", "&8[&6Expedition&8] &r");
         msgMobsSpawned = config.getString("messages.mobsSpawned", "&eMoblar doğdu! Sandığı koruyorlar!");
@@ -158,6 +201,11 @@ public class ConfigManager {
         msgTopDamage = config.getString("messages.topDamage", "&6En Çok Hasar: &f%player% &7- &e%damage%");
     }
 
+    // Guardians are spawned from this, so it must follow every change to the mob settings
+    private void rebuildGuardianArchetype() {
+        guardianArchetype = new GuardianArchetype(mobType, mobName, mobHealth, mobDamage);
+    }
+
     public void saveConfig() {
         FileConfiguration config = plugin.getConfig();
         
@@ -180,21 +228,36 @@ public class ConfigManager {
         
         config.set("distances.spawn", spawnDistance);
         config.set("distances.teleport", teleportDistance);
+        config.set("distances.leash", leashDistance);
         config.set("distances.mobSpawnRadius", mobSpawnRadius);
         
         config.set("times.ownershipDuration", ownershipDuration);
         config.set("times.cooldownDuration", cooldownDuration);
         
         config.set("hologram.enabled", hologramEnabled);
+        config.set("hologram.type", hologramType);
+        config.set("hologram.viewRange", hologramViewRange);
+        config.set("hologram.visibleRadius", hologramVisibleRadius);
         config.set("hologram.heightOffset", hologramHeightOffset);
         config.set("hologram.lineSpacing", hologramLineSpacing);
         config.set("hologram.title", hologramTitle);
         config.set("hologram.statusReady", hologramStatusReady);
         config.set("hologram.statusFighting", hologramStatusFighting);
+        config.set("hologram.statusSpawning", hologramStatusSpawning);
         config.set("hologram.statusOwner", hologramStatusOwner);
         config.set("hologram.statusTimeLeft", hologramStatusTimeLeft);
         config.set("hologram.statusCooldown", hologramStatusCooldown);
         
+        config.set("storage.type", storageType);
+        config.set("storage.saveInterval", saveInterval);
+        config.set("storage.journalCompactSize", journalCompactSize);
+        config.set("performance.tickBudget", tickBudget);
+        config.set("performance.activeRadius", activeRadius);
+        config.set("performance.spawnsPerTick", spawnsPerTick);
+        config.set("performance.maxActivePerWorld", maxActivePerWorld);
+        config.set("performance.idleAwareTimeout", idleAwareTimeout);
+        config.set("performance.idleResetTimeout", idleResetTimeout);
+        
         config.set("messages.prefix", msgPrefix);
         config.set("messages.mobsSpawned", msgMobsSpawned);
         config.set("messages.chestConquered", msgChestConquered);
@@ -225,19 +288,21 @@ public class ConfigManager {
 
     // Getters and Setters
     public EntityType getMobType() { return mobType; }
-    public void setMobType(EntityType mobType) { this.mobType = mobType; saveConfig(); }
+    public void setMobType(EntityType mobType) { this.mobType = mobType; rebuildGuardianArchetype(); saveConfig(); }
     
     public double getMobHealth() { return mobHealth; }
-    public void setMobHealth(double mobHealth) { this.mobHealth = mobHealth; saveConfig(); }
+    public void setMobHealth(double mobHealth) { this.mobHealth = mobHealth; rebuildGuardianArchetype(); saveConfig(); }
     
     public double getMobDamage() { return mobDamage; }
-    public void setMobDamage(double mobDamage) { this.mobDamage = mobDamage; saveConfig(); }
+    public void setMobDamage(double mobDamage) { this.mobDamage = mobDamage; rebuildGuardianArchetype(); saveConfig(); }
     
     public int getMobCount() { return mobCount; }
     public void setMobCount(int mobCount) { this.mobCount = mobCount; saveConfig(); }
     
     public String getMobName() { return mobName; }
-    public void setMobName(String mobName) { this.mobName = mobName; saveConfig(); }
+    public void setMobName(String mobName) { this.mobName = mobName; rebuildGuardianArchetype(); saveConfig(); }
+    
+    public GuardianArchetype getGuardianArchetype() { return guardianArchetype; }
     
     public double getSpawnDistance() { return spawnDistance; }
     public void setSpawnDistance(double spawnDistance) { this.spawnDistance = spawnDistance; saveConfig(); }
@@ -245,6 +310,8 @@ public class ConfigManager {
     public double getTeleportDistance() { return teleportDistance; }
     public void setTeleportDistance(double teleportDistance) { this.teleportDistance = teleportDistance; saveConfig(); }
     
+    public double getLeashDistance() { return leashDistance; }
+    
     public double getMobSpawnRadius() { return mobSpawnRadius; }
     public void setMobSpawnRadius(double mobSpawnRadius) { this.mobSpawnRadius = mobSpawnRadius; saveConfig(); }
     
@@ -256,15 +323,32 @@ public class ConfigManager {
     
     // Hologram getters
     public boolean isHologramEnabled() { return hologramEnabled; }
+    public boolean isHologramTextDisplay() { return !"ARMOR_STAND".equalsIgnoreCase(hologramType); }
+    public double getHologramViewRange() { return hologramViewRange; }
+    public double getHologramVisibleRadius() { return hologramVisibleRadius; }
     public double getHologramHeightOffset() { return hologramHeightOffset; }
     public double getHologramLineSpacing() { return hologramLineSpacing; }
     public String getHologramTitle() { return hologramTitle; }
     public String getHologramStatusReady() { return hologramStatusReady; }
     public String getHologramStatusFighting() { return hologramStatusFighting; }
+    public String getHologramStatusSpawning() { return hologramStatusSpawning; }
     public String getHologramStatusOwner() { return hologramStatusOwner; }
     public String getHologramStatusTimeLeft() { return hologramStatusTimeLeft; }
     public String getHologramStatusCooldown() { return hologramStatusCooldown; }
     
+    // Storage getters
+    public String getStorageType() { return storageType; }
+    public int getSaveInterval() { return saveInterval; }
+    public int getJournalCompactSize() { return journalCompactSize; }
+    
+    // Performance getters
+    public int getTickBudget() { return tickBudget; }
+    public double getActiveRadius() { return activeRadius; }
+    public int getSpawnsPerTick() { return spawnsPerTick; }
+    public int getMaxActivePerWorld() { return maxActivePerWorld; }
+    public int getIdleAwareTimeout() { return idleAwareTimeout; }
+    public int getIdleResetTimeout() { return idleResetTimeout; }
+    
     // Message getters
     public String getMsgPrefix() { return msgPrefix; }
     public String getMsgMobsSpawned() { return msgMobsSpawned; }
@@ -295,6 +379,7 @@ public class ConfigManager {
     public String getHealthBarLowColor() { return healthBarLowColor; }
     public String getHealthBarBackgroundColor() { return healthBarBackgroundColor; }
     public double getHealthBarHeightOffset() { return healthBarHeightOffset; }
+    public HealthBarGlyphs getHealthBarGlyphs() { return healthBarGlyphs; }
     
     // Loot winner mode getter
     public String getLootWinnerMode() { return lootWinnerMode; }
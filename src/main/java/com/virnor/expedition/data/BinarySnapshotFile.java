@@ -0,0 +1,188 @@
+package com.virnor.expedition.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Versioned binary snapshot of all expedition chests (data.bin).
+ *
+ * Layout (big endian):
+ * <pre>
+ * int    magic 'VXCS'
+ * short  version
+ * int    world count, then per world: string name
+ * int    chest count, then per chest:
+ *        string id, int world index, long packed x/y/z (ChestSpatialIndex#blockKey), byte state ordinal,
+ *        byte has owner [long most, long least], long cooldown expire, long ownership expire
+ * </pre>
+ * Strings are an unsigned short byte length followed by UTF-8 bytes.
+ * Reading goes through a memory-mapped FileChannel so startup cost is a single linear pass.
+ */
+public final class BinarySnapshotFile {
+
+    private static final int MAGIC = 0x56584353;
+    private static final short VERSION = 1;
+
+    private BinarySnapshotFile() {
+    }
+
+    public static List<ChestSnapshot> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() == 0) return new ArrayList<>();
+
+            MappedByteBuffer buffer = map(channel, file);
+            String[] worlds = new String[buffer.getInt()];
+            for (int i = 0; i < worlds.length; i++) {
+                worlds[i] = readString(buffer);
+            }
+
+            ExpeditionState[] states = ExpeditionState.values();
+            int chestCount = buffer.getInt();
+            List<ChestSnapshot> chests = new ArrayList<>(chestCount);
+            for (int i = 0; i < chestCount; i++) {
+                String id = readString(buffer);
+                String world = worlds[buffer.getInt()];
+                long packed = buffer.getLong();
+                ExpeditionState state = states[buffer.get()];
+                UUID owner = buffer.get() != 0 ? new UUID(buffer.getLong(), buffer.getLong()) : null;
+                long cooldownExpire = buffer.getLong();
+                long ownershipExpire = buffer.getLong();
+
+                chests.add(new ChestSnapshot(id, world,
+                        unpackX(packed), unpackY(packed), unpackZ(packed),
+                        state, owner, cooldownExpire, ownershipExpire));
+            }
+            return chests;
+        } catch (RuntimeException e) {
+            // Truncated buffer or out-of-range index means the file is corrupt
+            throw new IOException("Corrupt snapshot " + file.getFileName(), e);
+        }
+    }
+
+    /**
+     * Read only the chest ids, skipping over the fixed-size rest of each record
+     */
+    public static Set<String> readIds(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Set<String> ids = new HashSet<>();
+            if (channel.size() == 0) return ids;
+
+            MappedByteBuffer buffer = map(channel, file);
+            int worldCount = buffer.getInt();
+            for (int i = 0; i < worldCount; i++) {
+                skipString(buffer);
+            }
+
+            int chestCount = buffer.getInt();
+            for (int i = 0; i < chestCount; i++) {
+                ids.add(readString(buffer));
+                // world index, packed x/y/z, state
+                buffer.position(buffer.position() + 4 + 8 + 1);
+                if (buffer.get() != 0) {
+                    buffer.position(buffer.position() + 16);
+                }
+                // cooldown and ownership expire
+                buffer.position(buffer.position() + 16);
+            }
+            return ids;
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt snapshot " + file.getFileName(), e);
+        }
+    }
+
+    /**
+     * Map a snapshot and check its header, leaving the buffer after the version
+     */
+    private static MappedByteBuffer map(FileChannel channel, Path file) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not an expedition snapshot: " + file.getFileName());
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + " in " + file.getFileName());
+        }
+        return buffer;
+    }
+
+    public static byte[] encode(Collection<ChestSnapshot> chests) throws IOException {
+        Map<String, Integer> worldIndex = new LinkedHashMap<>();
+        for (ChestSnapshot chest : chests) {
+            worldIndex.putIfAbsent(chest.world(), worldIndex.size());
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + chests.size() * 64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+
+            out.writeInt(worldIndex.size());
+            for (String world : worldIndex.keySet()) {
+                writeString(out, world);
+            }
+
+            out.writeInt(chests.size());
+            for (ChestSnapshot chest : chests) {
+                writeString(out, chest.id());
+                out.writeInt(worldIndex.get(chest.world()));
+                out.writeLong(ChestSpatialIndex.blockKey(chest.x(), chest.y(), chest.z()));
+                out.writeByte(chest.state().ordinal());
+                if (chest.ownerUUID() != null) {
+                    out.writeByte(1);
+                    out.writeLong(chest.ownerUUID().getMostSignificantBits());
+                    out.writeLong(chest.ownerUUID().getLeastSignificantBits());
+                } else {
+                    out.writeByte(0);
+                }
+                out.writeLong(chest.cooldownExpireTime());
+                out.writeLong(chest.ownershipExpireTime());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    public static void write(Path file, Collection<ChestSnapshot> chests) throws IOException {
+        AtomicFiles.write(file, encode(chests));
+    }
+
+    // Inverse of ChestSpatialIndex#blockKey: 26 bits x, 26 bits z, 12 bits y, sign-extended
+    private static int unpackX(long packed) {
+        return (int) (packed << 38 >> 38);
+    }
+
+    private static int unpackZ(long packed) {
+        return (int) (packed << 12 >> 38);
+    }
+
+    private static int unpackY(long packed) {
+        return (int) (packed >> 52);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] data = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(data);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    private static void skipString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        buffer.position(buffer.position() + length);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] data = value.getBytes(StandardCharsets.UTF_8);
+        if (data.length > 0xFFFF) {
+            throw new IOException("String too long for snapshot: " + value.substring(0, 32) + "...");
+        }
+        out.writeShort(data.length);
+        out.write(data);
+    }
+}
@@ -0,0 +1,177 @@
+package com.virnor.expedition.data;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only journal of chest changes written on top of the last snapshot.
+ * Each line is a full upsert or a delete of one chest, so replaying the
+ * journal in order over the snapshot reproduces the latest state.
+ * Appends and truncation are only called from the IO thread.
+ */
+public class ChestJournal {
+
+    private static final String UPSERT = "U";
+    private static final String DELETE = "D";
+    private static final String NO_OWNER = "-";
+
+    private final File journalFile;
+    private final AtomicLong size;
+    // Whether the file is known to end on a complete record
+    private boolean tailChecked;
+
+    public ChestJournal(File journalFile) {
+        this.journalFile = journalFile;
+        this.size = new AtomicLong(journalFile.length());
+    }
+
+    /**
+     * Encode an upsert record for a chest
+     */
+    public static String upsert(ChestSnapshot chest) {
+        return String.join("\t",
+                UPSERT,
+                chest.id(),
+                chest.world(),
+                Integer.toString(chest.x()),
+                Integer.toString(chest.y()),
+                Integer.toString(chest.z()),
+                chest.state().name(),
+                chest.ownerUUID() != null ? chest.ownerUUID().toString() : NO_OWNER,
+                Long.toString(chest.cooldownExpireTime()),
+                Long.toString(chest.ownershipExpireTime())) + "\n";
+    }
+
+    /**
+     * Encode a delete record for a chest id
+     */
+    public static String delete(String id) {
+        return DELETE + "\t" + id + "\n";
+    }
+
+    /**
+     * Append a batch of encoded records in a single write
+     */
+    public void append(List<String> records) throws IOException {
+        if (records.isEmpty()) return;
+
+        StringBuilder batch = new StringBuilder();
+        // A crash can leave a torn last line; end it so the first record isn't merged into it
+        if (!tailChecked && hasTornTail()) {
+            batch.append('\n');
+        }
+        for (String record : records) {
+            batch.append(record);
+        }
+        byte[] bytes = batch.toString().getBytes(StandardCharsets.UTF_8);
+
+        Files.createDirectories(journalFile.toPath().getParent());
+        // A failed write may itself leave a torn line, so look again next time
+        tailChecked = false;
+        Files.write(journalFile.toPath(), bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        tailChecked = true;
+        size.addAndGet(bytes.length);
+    }
+
+    /**
+     * Replay all records over the given snapshot map. Returns the number of
+     * records skipped because they were malformed (e.g. a torn last line).
+     */
+    public int replay(Map<String, ChestSnapshot> chests) throws IOException {
+        if (!journalFile.exists()) return 0;
+
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(journalFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                if (!apply(line, chests)) {
+                    skipped++;
+                }
+            }
+        }
+        return skipped;
+    }
+
+    /**
+     * Replay only the ids over the given set: upserts add, deletes remove.
+     * Malformed records are skipped.
+     */
+    public void replayIds(Set<String> ids) throws IOException {
+        if (!journalFile.exists()) return;
+
+        try (BufferedReader reader = Files.newBufferedReader(journalFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("\t", 3);
+                if (parts.length < 2) continue;
+
+                if (DELETE.equals(parts[0])) {
+                    ids.remove(parts[1]);
+                } else if (UPSERT.equals(parts[0]) && parts.length == 3) {
+                    ids.add(parts[1]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Discard all records. Only safe once a snapshot containing them is on disk.
+     */
+    public void truncate() throws IOException {
+        Files.deleteIfExists(journalFile.toPath());
+        size.set(0);
+    }
+
+    public long size() {
+        return size.get();
+    }
+
+    private boolean hasTornTail() throws IOException {
+        if (!journalFile.exists()) return false;
+
+        try (RandomAccessFile file = new RandomAccessFile(journalFile, "r")) {
+            long length = file.length();
+            if (length == 0) return false;
+            file.seek(length - 1);
+            return file.read() != '\n';
+        }
+    }
+
+    private boolean apply(String line, Map<String, ChestSnapshot> chests) {
+        String[] parts = line.split("\t");
+        try {
+            if (DELETE.equals(parts[0]) && parts.length == 2) {
+                chests.remove(parts[1]);
+                return true;
+            }
+            if (UPSERT.equals(parts[0]) && parts.length == 10) {
+                ChestSnapshot chest = new ChestSnapshot(
+                        parts[1],
+                        parts[2],
+                        Integer.parseInt(parts[3]),
+                        Integer.parseInt(parts[4]),
+                        Integer.parseInt(parts[5]),
+                        ExpeditionState.valueOf(parts[6]),
+                        NO_OWNER.equals(parts[7]) ? null : UUID.fromString(parts[7]),
+                        Long.parseLong(parts[8]),
+                        Long.parseLong(parts[9]));
+                chests.put(chest.id(), chest);
+                return true;
+            }
+        } catch (IllegalArgumentException e) {
+            // Malformed record, reported through the return value
+        }
+        return false;
+    }
+}
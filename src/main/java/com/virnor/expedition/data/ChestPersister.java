@@ -0,0 +1,284 @@
+package com.virnor.expedition.data;
+
+import com.virnor.expedition.VirnorExpedition;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind persistence for expedition chests.
+ * Changes only mark chests dirty; once per save interval the dirty chests of
+ * each changed world are handed to the ChestStore in one batch on a background
+ * thread, so worlds without changes are never written. Stores that want a full
+ * snapshot of a world now and then (the file store, to compact its journal)
+ * get one taken on the main thread.
+ */
+public class ChestPersister {
+
+    private final VirnorExpedition plugin;
+    private final ChestStore store;
+    // World name -> ids of chests added, changed or removed since the last save
+    private final Map<String, Set<String>> dirtyChests;
+    private final Set<String> compactionQueued;
+    private final ExecutorService ioExecutor;
+    private BukkitTask saveTask;
+
+    public ChestPersister(VirnorExpedition plugin, ChestStore store) {
+        this.plugin = plugin;
+        this.store = store;
+        this.dirtyChests = new LinkedHashMap<>();
+        this.compactionQueued = Collections.synchronizedSet(new HashSet<>());
+        this.ioExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "VirnorExpedition-IO");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start(long intervalTicks) {
+        stop();
+        saveTask = Bukkit.getScheduler().runTaskTimer(plugin, this::saveIfDirty, intervalTicks, intervalTicks);
+    }
+
+    public void stop() {
+        if (saveTask != null) {
+            saveTask.cancel();
+            saveTask = null;
+        }
+    }
+
+    /**
+     * Load one world's chests on the IO thread, after any writes already queued for it.
+     * The callback runs on the main thread.
+     */
+    public void loadWorld(String world, Consumer<Map<String, ChestSnapshot>> callback) {
+        execute(() -> {
+            Map<String, ChestSnapshot> chests = loadWorldQuietly(world);
+            Bukkit.getScheduler().runTask(plugin, () -> callback.accept(chests));
+        });
+    }
+
+    /**
+     * Load one world's chests and block until they are read. Only used on startup.
+     */
+    public Map<String, ChestSnapshot> loadWorldNow(String world) {
+        Map<String, ChestSnapshot> chests = await(() -> loadWorldQuietly(world));
+        return chests != null ? chests : new LinkedHashMap<>();
+    }
+
+    /**
+     * Read the ids of every stored chest on the IO thread, after any writes already
+     * queued. The callback runs on the main thread, with null if they couldn't be read.
+     */
+    public void loadIds(Consumer<Set<String>> callback) {
+        execute(() -> {
+            Set<String> ids;
+            try {
+                ids = store.loadIds();
+            } catch (IOException e) {
+                plugin.getLogger().severe("Could not read expedition chest ids!");
+                e.printStackTrace();
+                ids = null;
+            }
+            Set<String> result = ids;
+            Bukkit.getScheduler().runTask(plugin, () -> callback.accept(result));
+        });
+    }
+
+    private Map<String, ChestSnapshot> loadWorldQuietly(String world) {
+        try {
+            return store.loadWorld(world);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Could not load expedition chests of world " + world + "!");
+            e.printStackTrace();
+            return new LinkedHashMap<>();
+        }
+    }
+
+    private <T> T await(Callable<T> task) {
+        if (ioExecutor.isShutdown()) return null;
+        try {
+            return ioExecutor.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.getCause().printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Run a task on the IO thread. Once flushed on shutdown, nothing more is written.
+     */
+    private void execute(Runnable task) {
+        if (ioExecutor.isShutdown()) return;
+        ioExecutor.execute(task);
+    }
+
+    /**
+     * Write a human-readable YAML copy of all chests in the background, including
+     * worlds that are not loaded. The callback runs on the main thread with whether
+     * the export succeeded.
+     */
+    public void exportYaml(File file, Consumer<Boolean> callback) {
+        List<ChestSnapshot> loaded = new ArrayList<>();
+        Set<String> loadedWorlds = new HashSet<>();
+        for (Map.Entry<String, Map<String, ExpeditionChest>> entry : plugin.getDataManager().getWorldChests().entrySet()) {
+            loadedWorlds.add(entry.getKey());
+            loaded.addAll(takeSnapshot(entry.getKey()));
+        }
+
+        execute(() -> {
+            boolean success;
+            try {
+                List<ChestSnapshot> snapshot = new ArrayList<>(loaded);
+                for (String world : store.worlds()) {
+                    if (!loadedWorlds.contains(world)) {
+                        snapshot.addAll(store.loadWorld(world).values());
+                    }
+                }
+                YamlSnapshotFile.write(file, snapshot);
+                success = true;
+            } catch (IOException e) {
+                plugin.getLogger().severe("Could not export " + file.getName() + "!");
+                e.printStackTrace();
+                success = false;
+            }
+            boolean result = success;
+            Bukkit.getScheduler().runTask(plugin, () -> callback.accept(result));
+        });
+    }
+
+    /**
+     * Mark a chest (added, changed or removed) as needing to be written
+     */
+    public void markDirty(String world, String chestId) {
+        dirtyChests.computeIfAbsent(world, name -> new LinkedHashSet<>()).add(chestId);
+    }
+
+    /**
+     * Hand the dirty chests of each changed world to the store in the background,
+     * compacting a world if the store asks for it
+     */
+    public void saveIfDirty() {
+        for (String world : new ArrayList<>(dirtyChests.keySet())) {
+            queueDirty(world);
+
+            if (!compactionQueued.contains(world) && store.needsCompaction(world, false)) {
+                queueCompaction(world);
+            }
+        }
+    }
+
+    /**
+     * Queue everything pending for a world whose chests are about to be dropped from memory
+     */
+    public void saveWorld(String world) {
+        queueDirty(world);
+        if (store.needsCompaction(world, true)) {
+            queueCompaction(world);
+        }
+    }
+
+    /**
+     * Stop the background writer, write everything pending and block until it is on disk
+     */
+    public void flush() {
+        stop();
+
+        Set<String> worlds = new LinkedHashSet<>(plugin.getDataManager().getWorldChests().keySet());
+        worlds.addAll(dirtyChests.keySet());
+        for (String world : worlds) {
+            saveWorld(world);
+        }
+        execute(() -> {
+            try {
+                store.close();
+            } catch (IOException e) {
+                plugin.getLogger().severe("Could not close the chest store!");
+                e.printStackTrace();
+            }
+        });
+
+        ioExecutor.shutdown();
+        try {
+            if (!ioExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                plugin.getLogger().severe("Timed out waiting for expedition chests to be saved!");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Split a world's dirty ids into upserts and deletes and queue them as one batch
+     */
+    private void queueDirty(String world) {
+        Set<String> dirty = dirtyChests.remove(world);
+        if (dirty == null || dirty.isEmpty()) return;
+
+        Map<String, ExpeditionChest> chests = plugin.getDataManager().getWorldChests().getOrDefault(world, Collections.emptyMap());
+        List<ChestSnapshot> upserts = new ArrayList<>();
+        List<String> deletes = new ArrayList<>();
+        for (String id : dirty) {
+            ExpeditionChest chest = chests.get(id);
+            if (chest != null) {
+                upserts.add(ChestSnapshot.of(chest));
+            } else {
+                deletes.add(id);
+            }
+        }
+
+        execute(() -> {
+            try {
+                store.upsertAll(world, upserts);
+                store.deleteAll(world, deletes);
+            } catch (IOException e) {
+                plugin.getLogger().severe("Could not save expedition chests of world " + world + "!");
+                e.printStackTrace();
+            }
+        });
+    }
+
+    private void queueCompaction(String world) {
+        // A snapshot of a world that isn't in memory would be empty and wipe its shard
+        if (!plugin.getDataManager().getWorldChests().containsKey(world)) return;
+
+        compactionQueued.add(world);
+        List<ChestSnapshot> snapshot = takeSnapshot(world);
+        execute(() -> compact(world, snapshot));
+    }
+
+    private List<ChestSnapshot> takeSnapshot(String world) {
+        Collection<ExpeditionChest> chests = plugin.getDataManager().getWorldChests()
+            .getOrDefault(world, Collections.emptyMap()).values();
+        List<ChestSnapshot> snapshot = new ArrayList<>(chests.size());
+        for (ExpeditionChest chest : chests) {
+            snapshot.add(ChestSnapshot.of(chest));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Runs on the IO thread after every write queued before the snapshot was taken
+     */
+    private void compact(String world, List<ChestSnapshot> snapshot) {
+        try {
+            store.compact(world, snapshot);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Could not compact the chests of world " + world + "!");
+            e.printStackTrace();
+        } finally {
+            compactionQueued.remove(world);
+        }
+    }
+}
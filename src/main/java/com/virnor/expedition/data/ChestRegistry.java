@@ -0,0 +1,68 @@
+package com.virnor.expedition.data;
+
+import java.util.Arrays;
+
+/**
+ * Assigns every loaded chest a small int handle and resolves handles back to chests
+ * with an array index. Hot paths key their per-chest state by handle (or hold the
+ * chest itself) instead of hashing String ids; ids are only used for storage and commands.
+ * Released handles are reused, so state keyed by a handle must be cleared with the chest.
+ */
+public class ChestRegistry {
+
+    private ExpeditionChest[] chests;
+    private int[] freeHandles;
+    private int freeCount;
+    private int nextHandle;
+
+    public ChestRegistry() {
+        this.chests = new ExpeditionChest[64];
+        this.freeHandles = new int[16];
+    }
+
+    public int register(ExpeditionChest chest) {
+        if (chest.getHandle() >= 0) return chest.getHandle();
+
+        int handle = freeCount > 0 ? freeHandles[--freeCount] : nextHandle++;
+        if (handle >= chests.length) {
+            chests = Arrays.copyOf(chests, chests.length * 2);
+        }
+        chests[handle] = chest;
+        chest.setHandle(handle);
+        return handle;
+    }
+
+    public void release(ExpeditionChest chest) {
+        int handle = chest.getHandle();
+        if (handle < 0 || chests[handle] != chest) return;
+
+        chests[handle] = null;
+        chest.setHandle(-1);
+        if (freeCount == freeHandles.length) {
+            freeHandles = Arrays.copyOf(freeHandles, freeHandles.length * 2);
+        }
+        freeHandles[freeCount++] = handle;
+    }
+
+    public ExpeditionChest get(int handle) {
+        return handle >= 0 && handle < nextHandle ? chests[handle] : null;
+    }
+
+    /**
+     * Upper bound (exclusive) of the handles handed out so far
+     */
+    public int capacity() {
+        return nextHandle;
+    }
+
+    public void clear() {
+        for (int i = 0; i < nextHandle; i++) {
+            if (chests[i] != null) {
+                chests[i].setHandle(-1);
+                chests[i] = null;
+            }
+        }
+        freeCount = 0;
+        nextHandle = 0;
+    }
+}
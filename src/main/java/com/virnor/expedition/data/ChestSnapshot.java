@@ -0,0 +1,26 @@
+package com.virnor.expedition.data;
+
+import org.bukkit.Location;
+
+import java.util.UUID;
+
+/**
+ * Immutable copy of the persisted fields of an expedition chest.
+ * Taken on the main thread so it can be serialized on a background thread.
+ */
+public record ChestSnapshot(String id, String world, int x, int y, int z,
+                            ExpeditionState state, UUID ownerUUID,
+                            long cooldownExpireTime, long ownershipExpireTime) {
+
+    public static ChestSnapshot of(ExpeditionChest chest) {
+        Location loc = chest.getLocation();
+        return new ChestSnapshot(
+                chest.getId(),
+                loc.getWorld().getName(),
+                loc.getBlockX(), loc.getBlockY(), loc.getBlockZ(),
+                chest.getState(),
+                chest.getOwnerUUID(),
+                chest.getCooldownExpireTime(),
+                chest.getOwnershipExpireTime());
+    }
+}
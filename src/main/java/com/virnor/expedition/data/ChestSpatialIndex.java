@@ -0,0 +1,176 @@
+package com.virnor.expedition.data;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.*;
+
+/**
+ * Per-world spatial index for expedition chests.
+ * Chests are keyed by packed block and chunk coordinates so exact-block lookups
+ * are a single hash probe and radius queries only visit overlapping chunks.
+ */
+public class ChestSpatialIndex {
+
+    private final Map<UUID, WorldIndex> worlds;
+    private int modCount;
+
+    public ChestSpatialIndex() {
+        this.worlds = new HashMap<>();
+    }
+
+    public void add(ExpeditionChest chest) {
+        Location loc = chest.getLocation();
+        World world = loc.getWorld();
+        if (world == null) return;
+
+        WorldIndex index = worlds.computeIfAbsent(world.getUID(), k -> new WorldIndex());
+        int x = loc.getBlockX();
+        int y = loc.getBlockY();
+        int z = loc.getBlockZ();
+
+        ExpeditionChest previous = index.byBlock.put(blockKey(x, y, z), chest);
+        List<ExpeditionChest> chunkChests = index.byChunk.computeIfAbsent(chunkKey(x >> 4, z >> 4), k -> new ArrayList<>(2));
+        if (previous != null) {
+            chunkChests.remove(previous);
+        }
+        chunkChests.add(chest);
+        modCount++;
+    }
+
+    public void remove(ExpeditionChest chest) {
+        Location loc = chest.getLocation();
+        World world = loc.getWorld();
+        if (world == null) return;
+
+        WorldIndex index = worlds.get(world.getUID());
+        if (index == null) return;
+
+        int x = loc.getBlockX();
+        int y = loc.getBlockY();
+        int z = loc.getBlockZ();
+
+        index.byBlock.remove(blockKey(x, y, z), chest);
+        modCount++;
+
+        long chunkKey = chunkKey(x >> 4, z >> 4);
+        List<ExpeditionChest> chunkChests = index.byChunk.get(chunkKey);
+        if (chunkChests != null) {
+            chunkChests.remove(chest);
+            if (chunkChests.isEmpty()) {
+                index.byChunk.remove(chunkKey);
+            }
+        }
+
+        if (index.byBlock.isEmpty()) {
+            worlds.remove(world.getUID());
+        }
+    }
+
+    public void clear() {
+        worlds.clear();
+        modCount++;
+    }
+
+    /**
+     * Incremented on every change so callers can tell when cached lookups are stale
+     */
+    public int getModCount() {
+        return modCount;
+    }
+
+    /**
+     * Get the chest occupying the block at this location, or null
+     */
+    public ExpeditionChest getAt(Location location) {
+        World world = location.getWorld();
+        if (world == null) return null;
+        return getAt(world, location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    public ExpeditionChest getAt(World world, int x, int y, int z) {
+        WorldIndex index = worlds.get(world.getUID());
+        if (index == null) return null;
+        return index.byBlock.get(blockKey(x, y, z));
+    }
+
+    /**
+     * Get all chests registered in a chunk. The returned list must not be modified.
+     */
+    public List<ExpeditionChest> getInChunk(World world, int chunkX, int chunkZ) {
+        WorldIndex index = worlds.get(world.getUID());
+        if (index == null) return Collections.emptyList();
+        List<ExpeditionChest> chunkChests = index.byChunk.get(chunkKey(chunkX, chunkZ));
+        return chunkChests != null ? chunkChests : Collections.emptyList();
+    }
+
+    /**
+     * Get all chests within radius of the center, visiting only overlapping chunks
+     */
+    public List<ExpeditionChest> getNearby(Location center, double radius) {
+        List<ExpeditionChest> result = new ArrayList<>();
+        World world = center.getWorld();
+        if (world == null) return result;
+
+        WorldIndex index = worlds.get(world.getUID());
+        if (index == null) return result;
+
+        double radiusSquared = radius * radius;
+        int minChunkX = Location.locToBlock(center.getX() - radius) >> 4;
+        int maxChunkX = Location.locToBlock(center.getX() + radius) >> 4;
+        int minChunkZ = Location.locToBlock(center.getZ() - radius) >> 4;
+        int maxChunkZ = Location.locToBlock(center.getZ() + radius) >> 4;
+
+        for (int cx = minChunkX; cx <= maxChunkX; cx++) {
+            for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
+                List<ExpeditionChest> chunkChests = index.byChunk.get(chunkKey(cx, cz));
+                if (chunkChests == null) continue;
+
+                for (ExpeditionChest chest : chunkChests) {
+                    if (chest.getLocation().distanceSquared(center) <= radiusSquared) {
+                        result.add(chest);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the closest chest within radius of the center, or null
+     */
+    public ExpeditionChest getNearest(Location center, double radius) {
+        ExpeditionChest nearest = null;
+        double nearestDistance = Double.MAX_VALUE;
+
+        for (ExpeditionChest chest : getNearby(center, radius)) {
+            double distance = chest.getLocation().distanceSquared(center);
+            if (distance < nearestDistance) {
+                nearestDistance = distance;
+                nearest = chest;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Pack block coordinates into a single key (26 bits x, 26 bits z, 12 bits y)
+     */
+    public static long blockKey(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFFL)
+                | (((long) z & 0x3FFFFFFL) << 26)
+                | (((long) y & 0xFFFL) << 52);
+    }
+
+    /**
+     * Pack chunk coordinates into a single key, same layout as Chunk#getChunkKey
+     */
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX & 0xFFFFFFFFL) | (((long) chunkZ & 0xFFFFFFFFL) << 32);
+    }
+
+    private static class WorldIndex {
+        private final Map<Long, ExpeditionChest> byBlock = new HashMap<>();
+        private final Map<Long, List<ExpeditionChest>> byChunk = new HashMap<>();
+    }
+}
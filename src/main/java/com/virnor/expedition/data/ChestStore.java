@@ -0,0 +1,50 @@
+package com.virnor.expedition.data;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Persistence backend for expedition chests, sharded by world name.
+ * All methods block and are only called from ChestPersister's IO thread
+ * (or before it has any work, on startup).
+ */
+public interface ChestStore {
+
+    /**
+     * Names of all worlds that have stored chests
+     */
+    Set<String> worlds() throws IOException;
+
+    /**
+     * Load the chests of one world, keyed by id
+     */
+    Map<String, ChestSnapshot> loadWorld(String world) throws IOException;
+
+    /**
+     * Ids of every stored chest in every world, read without loading the chests
+     */
+    Set<String> loadIds() throws IOException;
+
+    void upsertAll(String world, Collection<ChestSnapshot> chests) throws IOException;
+
+    void deleteAll(String world, Collection<String> ids) throws IOException;
+
+    /**
+     * Find all chests in a world with the given state, e.g. every chest on COOLDOWN
+     */
+    List<ChestSnapshot> findByState(String world, ExpeditionState state) throws IOException;
+
+    /**
+     * Whether the store wants a full snapshot of a world passed to {@link #compact}.
+     * Called on the main thread; unloading is true when the world is about to be dropped from memory.
+     */
+    default boolean needsCompaction(String world, boolean unloading) {
+        return false;
+    }
+
+    default void compact(String world, Collection<ChestSnapshot> chests) throws IOException {
+    }
+
+    default void close() throws IOException {
+    }
+}
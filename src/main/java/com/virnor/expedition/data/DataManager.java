@@ -4,138 +4,293 @@ import com.virnor.expedition.VirnorExpedition;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.World;
-import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import java.util.*;
+import java.util.function.Consumer;
 
 public class DataManager {
 
     private final VirnorExpedition plugin;
-    private final File dataFile;
-    private FileConfiguration dataConfig;
     private final Map<String, ExpeditionChest> expeditionChests;
+    // World name -> id -> chest, one entry per world whose shard is loaded
+    private final Map<String, Map<String, ExpeditionChest>> worldChests;
+    private final ChestSpatialIndex spatialIndex;
+    private final ChestRegistry registry;
+    // Ids of chests in worlds that are not loaded, read in the background to keep new ids unique
+    private final Set<String> unloadedIds;
+    private boolean idsLoaded;
+    private boolean idsLoading;
+    private ChestPersister persister;
 
     public DataManager(VirnorExpedition plugin) {
         this.plugin = plugin;
-        this.dataFile = new File(plugin.getDataFolder(), "data.yml");
         this.expeditionChests = new HashMap<>();
+        this.worldChests = new HashMap<>();
+        this.spatialIndex = new ChestSpatialIndex();
+        this.registry = new ChestRegistry();
+        this.unloadedIds = new HashSet<>();
     }
 
-    public void loadData() {
-        if (!dataFile.exists()) {
-            plugin.getDataFolder().mkdirs();
-            try {
-                dataFile.createNewFile();
-            } catch (IOException e) {
-                plugin.getLogger().severe("Could not create data.yml!");
-                e.printStackTrace();
+    private FileChestStore createFileStore() {
+        return new FileChestStore(plugin.getLogger(), plugin.getDataFolder(),
+            plugin.getConfigManager().getJournalCompactSize() * 1024L);
+    }
+
+    /**
+     * Create the store selected by storage.type
+     */
+    private ChestStore createStore() {
+        if ("SQLITE".equalsIgnoreCase(plugin.getConfigManager().getStorageType())) {
+            return new SqliteChestStore(new File(plugin.getDataFolder(), "data.db"));
+        }
+        return createFileStore();
+    }
+
+    /**
+     * Copy the file data into an empty SQLite store once, so switching storage.type keeps all chests.
+     * The shards are renamed afterwards, so chests deleted from data.db don't come back on restart.
+     */
+    private void importFileData(ChestStore store) {
+        try {
+            if (!store.worlds().isEmpty()) return;
+
+            FileChestStore fileStore = createFileStore();
+            int imported = 0;
+            for (String world : fileStore.worlds()) {
+                Collection<ChestSnapshot> chests = fileStore.loadWorld(world).values();
+                store.upsertAll(world, chests);
+                imported += chests.size();
             }
+            fileStore.retireShards();
+            if (imported > 0) {
+                plugin.getLogger().info("Imported " + imported + " expedition chest(s) into data.db");
+            }
+        } catch (IOException e) {
+            plugin.getLogger().severe("Could not import expedition chests into data.db!");
+            e.printStackTrace();
         }
+    }
+
+    /**
+     * Load the chests of every world that is already loaded. Worlds loaded
+     * later are picked up through {@link #loadWorld(World)}.
+     */
+    public void loadData() {
+        long start = System.nanoTime();
+        plugin.getDataFolder().mkdirs();
         
-        dataConfig = YamlConfiguration.loadConfiguration(dataFile);
         expeditionChests.clear();
+        worldChests.clear();
+        spatialIndex.clear();
+        registry.clear();
+        unloadedIds.clear();
+        idsLoaded = false;
         
-        ConfigurationSection chestsSection = dataConfig.getConfigurationSection("chests");
-        if (chestsSection != null) {
-            for (String id : chestsSection.getKeys(false)) {
-                ConfigurationSection chestSection = chestsSection.getConfigurationSection(id);
-                if (chestSection != null) {
-                    String worldName = chestSection.getString("world");
-                    double x = chestSection.getDouble("x");
-                    double y = chestSection.getDouble("y");
-                    double z = chestSection.getDouble("z");
-                    
-                    World world = Bukkit.getWorld(worldName);
-                    if (world != null) {
-                        Location location = new Location(world, x, y, z);
-                        ExpeditionChest chest = new ExpeditionChest(id, location);
-                        
-                        // Load state
-                        String stateStr = chestSection.getString("state", "READY");
-                        chest.setState(ExpeditionState.valueOf(stateStr));
-                        
-                        // Load cooldown
-                        long cooldownExpire = chestSection.getLong("cooldownExpire", 0);
-                        chest.setCooldownExpireTime(cooldownExpire);
-                        
-                        // Check if cooldown expired
-                        if (chest.getState() == ExpeditionState.COOLDOWN && chest.isCooldownExpired()) {
-                            chest.setState(ExpeditionState.READY);
-                        }
-                        
-                        expeditionChests.put(id, chest);
-                        plugin.getLogger().info("Loaded expedition chest: " + id);
-                    }
-                }
+        if (persister == null) {
+            ChestStore store = createStore();
+            if (store instanceof SqliteChestStore) {
+                importFileData(store);
             }
+            persister = new ChestPersister(plugin, store);
         }
+        
+        for (World world : Bukkit.getWorlds()) {
+            addWorldChests(world, persister.loadWorldNow(world.getName()));
+        }
+        loadIds();
+        
+        plugin.getLogger().info(String.format("Loaded %d expedition chest(s) in %d world(s) in %d ms",
+            expeditionChests.size(), worldChests.size(), (System.nanoTime() - start) / 1_000_000));
     }
 
-    public void saveData() {
-        dataConfig = new YamlConfiguration();
+    /**
+     * Load a world's chests in the background when the world is loaded
+     */
+    public void loadWorld(World world) {
+        String name = world.getName();
+        if (worldChests.containsKey(name)) return;
         
-        for (Map.Entry<String, ExpeditionChest> entry : expeditionChests.entrySet()) {
-            String id = entry.getKey();
-            ExpeditionChest chest = entry.getValue();
-            Location loc = chest.getLocation();
+        persister.loadWorld(name, snapshots -> {
+            // The world may have been unloaded again while its shard was read
+            World loaded = Bukkit.getWorld(name);
+            if (loaded == null) return;
             
-            String path = "chests." + id;
-            dataConfig.set(path + ".world", loc.getWorld().getName());
-            dataConfig.set(path + ".x", loc.getX());
-            dataConfig.set(path + ".y", loc.getY());
-            dataConfig.set(path + ".z", loc.getZ());
-            dataConfig.set(path + ".state", chest.getState().name());
-            dataConfig.set(path + ".cooldownExpire", chest.getCooldownExpireTime());
+            addWorldChests(loaded, snapshots);
+            plugin.getExpeditionManager().refreshProximity(loaded);
+            plugin.getLogger().info("Loaded " + snapshots.size() + " expedition chest(s) for world " + name);
+        });
+    }
+
+    /**
+     * Save and drop the chests of a world that is being unloaded
+     */
+    public void unloadWorld(World world) {
+        String name = world.getName();
+        Map<String, ExpeditionChest> chests = worldChests.get(name);
+        if (chests == null) return;
+        
+        for (ExpeditionChest chest : chests.values()) {
+            plugin.getExpeditionManager().unloadChest(chest);
         }
+        persister.saveWorld(name);
         
-        try {
-            dataConfig.save(dataFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Could not save data.yml!");
-            e.printStackTrace();
+        for (ExpeditionChest chest : chests.values()) {
+            expeditionChests.remove(chest.getId());
+            spatialIndex.remove(chest);
+            registry.release(chest);
+            unloadedIds.add(chest.getId());
+        }
+        worldChests.remove(name);
+    }
+
+    private void addWorldChests(World world, Map<String, ChestSnapshot> snapshots) {
+        Map<String, ExpeditionChest> chests = worldChests.computeIfAbsent(world.getName(), name -> new HashMap<>());
+        
+        for (ChestSnapshot snapshot : snapshots.values()) {
+            // Chests created while the shard was being read are newer
+            if (expeditionChests.containsKey(snapshot.id())) continue;
+            
+            Location location = new Location(world, snapshot.x(), snapshot.y(), snapshot.z());
+            ExpeditionChest chest = new ExpeditionChest(snapshot.id(), location);
+            chest.setState(snapshot.state());
+            chest.setOwnerUUID(snapshot.ownerUUID());
+            chest.setCooldownExpireTime(snapshot.cooldownExpireTime());
+            chest.setOwnershipExpireTime(snapshot.ownershipExpireTime());
+            
+            // Guardians don't survive a restart, so a fight in progress starts over
+            if (chest.getState() == ExpeditionState.ACTIVE) {
+                chest.setState(ExpeditionState.READY);
+            }
+            
+            // Check if cooldown expired
+            if (chest.getState() == ExpeditionState.COOLDOWN && chest.isCooldownExpired()) {
+                chest.setState(ExpeditionState.READY);
+            }
+            
+            chests.put(chest.getId(), chest);
+            expeditionChests.put(chest.getId(), chest);
+            registry.register(chest);
+            spatialIndex.add(chest);
+            unloadedIds.remove(chest.getId());
+            plugin.getExpeditionManager().scheduleExpiration(chest);
         }
     }
 
+    /**
+     * Start the background save task
+     */
+    public void startAutoSave() {
+        persister.start(plugin.getConfigManager().getSaveInterval());
+    }
+
+    /**
+     * Queue a chest for the next background save
+     */
+    public void markDirty(ExpeditionChest chest) {
+        persister.markDirty(chest.getLocation().getWorld().getName(), chest.getId());
+    }
+
+    /**
+     * Export all chests to a YAML file for humans, off the main thread
+     */
+    public void exportData(File file, Consumer<Boolean> callback) {
+        persister.exportYaml(file, callback);
+    }
+
+    /**
+     * Write all chests and block until the data is on disk. Used on shutdown.
+     */
+    public void saveData() {
+        // Nothing was loaded if loadData failed
+        if (persister == null) return;
+        persister.flush();
+    }
+
     public Map<String, ExpeditionChest> getExpeditionChests() {
         return expeditionChests;
     }
 
+    /**
+     * Loaded chests grouped by world name
+     */
+    public Map<String, Map<String, ExpeditionChest>> getWorldChests() {
+        return worldChests;
+    }
+
     public ExpeditionChest getExpeditionChest(String id) {
         return expeditionChests.get(id);
     }
 
     public void addExpeditionChest(ExpeditionChest chest) {
-        expeditionChests.put(chest.getId(), chest);
-        saveData();
+        ExpeditionChest previous = expeditionChests.put(chest.getId(), chest);
+        if (previous != null) {
+            spatialIndex.remove(previous);
+            registry.release(previous);
+            worldChests.get(previous.getLocation().getWorld().getName()).remove(previous.getId());
+        }
+        worldChests.computeIfAbsent(chest.getLocation().getWorld().getName(), name -> new HashMap<>())
+            .put(chest.getId(), chest);
+        registry.register(chest);
+        spatialIndex.add(chest);
+        markDirty(chest);
     }
 
     public void removeExpeditionChest(String id) {
-        expeditionChests.remove(id);
-        saveData();
+        ExpeditionChest chest = expeditionChests.remove(id);
+        if (chest == null) return;
+        
+        worldChests.get(chest.getLocation().getWorld().getName()).remove(id);
+        spatialIndex.remove(chest);
+        registry.release(chest);
+        markDirty(chest);
     }
 
     public ExpeditionChest getChestByLocation(Location location) {
-        for (ExpeditionChest chest : expeditionChests.values()) {
-            Location chestLoc = chest.getLocation();
-            if (chestLoc.getWorld().equals(location.getWorld()) &&
-                chestLoc.getBlockX() == location.getBlockX() &&
-                chestLoc.getBlockY() == location.getBlockY() &&
-                chestLoc.getBlockZ() == location.getBlockZ()) {
-                return chest;
+        return spatialIndex.getAt(location);
+    }
+
+    public ChestSpatialIndex getSpatialIndex() {
+        return spatialIndex;
+    }
+
+    public ChestRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Read the ids of chests in unloaded worlds in the background
+     */
+    private void loadIds() {
+        if (idsLoading) return;
+        idsLoading = true;
+        
+        persister.loadIds(ids -> {
+            idsLoading = false;
+            if (ids == null) return;
+            
+            for (String id : ids) {
+                if (!expeditionChests.containsKey(id)) {
+                    unloadedIds.add(id);
+                }
             }
-        }
-        return null;
+            idsLoaded = true;
+        });
     }
 
+    /**
+     * A new id unique across all worlds, or null while the stored ids are not known yet
+     */
     public String generateChestId() {
+        if (!idsLoaded) {
+            // Retries a read that failed
+            loadIds();
+            return null;
+        }
+        
         int counter = 1;
-        while (expeditionChests.containsKey("chest_" + counter)) {
+        while (expeditionChests.containsKey("chest_" + counter) || unloadedIds.contains("chest_" + counter)) {
             counter++;
         }
         return "chest_" + counter;
@@ -11,12 +11,19 @@ public class ExpeditionChest {
     
     private final String id;
     private final Location location;
+    private int handle = -1; // Assigned by ChestRegistry while the chest is loaded
     private ExpeditionState state;
     private UUID ownerUUID;
+    private String ownerName; // Display name cached at conquest, not persisted
     private long ownershipExpireTime;
     private long cooldownExpireTime;
     private List<UUID> mobUUIDs;
     private int mobsAlive;
+    private int pendingSpawns; // Guardians still waiting in the activation queue
+    private SpawnRing spawnRing; // Guardian positions, built on demand and dropped when a block near it changes
+    
+    // No player nearby or chunk not loaded; periodic work is skipped
+    private boolean dormant = true;
     
     // Claim protection
     private volatile boolean claimLocked = false;
@@ -35,6 +42,17 @@ public class ExpeditionChest {
         return id;
     }
 
+    /**
+     * Dense int handle of this chest, or -1 if it is not registered
+     */
+    public int getHandle() {
+        return handle;
+    }
+
+    void setHandle(int handle) {
+        this.handle = handle;
+    }
+
     public Location getLocation() {
         return location;
     }
@@ -53,6 +71,15 @@ public class ExpeditionChest {
 
     public void setOwnerUUID(UUID ownerUUID) {
         this.ownerUUID = ownerUUID;
+        this.ownerName = null;
+    }
+
+    public String getOwnerName() {
+        return ownerName;
+    }
+
+    public void setOwnerName(String ownerName) {
+        this.ownerName = ownerName;
     }
 
     public long getOwnershipExpireTime() {
@@ -99,9 +126,34 @@ public class ExpeditionChest {
         this.mobsAlive--;
     }
 
+    public int getPendingSpawns() {
+        return pendingSpawns;
+    }
+
+    public void setPendingSpawns(int pendingSpawns) {
+        this.pendingSpawns = pendingSpawns;
+    }
+
+    public SpawnRing getSpawnRing() {
+        return spawnRing;
+    }
+
+    public void setSpawnRing(SpawnRing spawnRing) {
+        this.spawnRing = spawnRing;
+    }
+
     public void clearMobs() {
         this.mobUUIDs.clear();
         this.mobsAlive = 0;
+        this.pendingSpawns = 0;
+    }
+
+    public boolean isDormant() {
+        return dormant;
+    }
+
+    public void setDormant(boolean dormant) {
+        this.dormant = dormant;
     }
 
     public boolean isOwnershipExpired() {
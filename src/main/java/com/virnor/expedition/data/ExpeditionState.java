@@ -1,5 +1,6 @@
 package com.virnor.expedition.data;
 
+// Ordinals are stored in data.bin - only append new states at the end
 public enum ExpeditionState {
     READY,          // Chest hazır, oyuncu yaklaşabilir
     ACTIVE,         // Moblar spawn olmuş, savaş devam ediyor
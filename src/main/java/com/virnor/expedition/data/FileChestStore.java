@@ -0,0 +1,248 @@
+package com.virnor.expedition.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * File backend with one shard per world in worlds/: a binary snapshot
+ * (&lt;world&gt;.bin) plus an append-only journal (&lt;world&gt;.journal).
+ * Changes are journal appends; once a world's journal passes the compaction
+ * threshold the persister hands over a snapshot of that world, after which
+ * its journal is truncated. Other worlds' files are never touched.
+ */
+public class FileChestStore implements ChestStore {
+
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final String JOURNAL_SUFFIX = ".journal";
+
+    private final Logger logger;
+    private final File shardFolder;
+    private final File dataFolder;
+    private final long compactThreshold;
+    private final Map<String, ChestJournal> journals;
+    // Set if the legacy data couldn't be split; the shards are then left alone until a restart retries
+    private IOException migrationError;
+
+    public FileChestStore(Logger logger, File dataFolder, long compactThreshold) {
+        this.logger = logger;
+        this.dataFolder = dataFolder;
+        this.shardFolder = new File(dataFolder, "worlds");
+        this.compactThreshold = compactThreshold;
+        this.journals = new ConcurrentHashMap<>();
+
+        try {
+            migrateLegacy();
+        } catch (IOException e) {
+            logger.severe("Could not migrate the legacy expedition chest data!");
+            e.printStackTrace();
+            migrationError = e;
+        }
+    }
+
+    @Override
+    public Set<String> worlds() throws IOException {
+        checkMigrated();
+
+        Set<String> worlds = new TreeSet<>();
+        File[] files = shardFolder.listFiles();
+        if (files == null) return worlds;
+
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(SNAPSHOT_SUFFIX)) {
+                worlds.add(name.substring(0, name.length() - SNAPSHOT_SUFFIX.length()));
+            } else if (name.endsWith(JOURNAL_SUFFIX)) {
+                worlds.add(name.substring(0, name.length() - JOURNAL_SUFFIX.length()));
+            }
+        }
+        return worlds;
+    }
+
+    /**
+     * Load a world's last snapshot and replay its journal on top of it
+     */
+    @Override
+    public Map<String, ChestSnapshot> loadWorld(String world) throws IOException {
+        checkMigrated();
+
+        Map<String, ChestSnapshot> chests = new LinkedHashMap<>();
+        File snapshotFile = snapshotFile(world);
+        if (snapshotFile.exists()) {
+            for (ChestSnapshot chest : BinarySnapshotFile.read(snapshotFile.toPath())) {
+                chests.put(chest.id(), chest);
+            }
+        }
+
+        int skipped = journal(world).replay(chests);
+        if (skipped > 0) {
+            logger.warning("Skipped " + skipped + " invalid journal record(s) in " + world + JOURNAL_SUFFIX);
+        }
+
+        return chests;
+    }
+
+    /**
+     * Ids from each shard's snapshot and journal, without decoding the chests
+     */
+    @Override
+    public Set<String> loadIds() throws IOException {
+        Set<String> ids = new HashSet<>();
+        for (String world : worlds()) {
+            File snapshotFile = snapshotFile(world);
+            if (snapshotFile.exists()) {
+                ids.addAll(BinarySnapshotFile.readIds(snapshotFile.toPath()));
+            }
+            journal(world).replayIds(ids);
+        }
+        return ids;
+    }
+
+    @Override
+    public void upsertAll(String world, Collection<ChestSnapshot> chests) throws IOException {
+        checkMigrated();
+        List<String> records = new ArrayList<>(chests.size());
+        for (ChestSnapshot chest : chests) {
+            records.add(ChestJournal.upsert(chest));
+        }
+        journal(world).append(records);
+    }
+
+    @Override
+    public void deleteAll(String world, Collection<String> ids) throws IOException {
+        checkMigrated();
+        List<String> records = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            records.add(ChestJournal.delete(id));
+        }
+        journal(world).append(records);
+    }
+
+    /**
+     * Not indexed: loads the world's shard and filters it
+     */
+    @Override
+    public List<ChestSnapshot> findByState(String world, ExpeditionState state) throws IOException {
+        List<ChestSnapshot> result = new ArrayList<>();
+        for (ChestSnapshot chest : loadWorld(world).values()) {
+            if (chest.state() == state) {
+                result.add(chest);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Compact once the journal passes the threshold, or whenever it has records
+     * and the world is being unloaded, so an unloaded world is a single snapshot
+     */
+    @Override
+    public boolean needsCompaction(String world, boolean unloading) {
+        long size = journal(world).size();
+        return unloading ? size > 0 : size >= compactThreshold;
+    }
+
+    /**
+     * Write a world's snapshot, then drop the journal records it already contains
+     */
+    @Override
+    public void compact(String world, Collection<ChestSnapshot> chests) throws IOException {
+        checkMigrated();
+        if (chests.isEmpty()) {
+            Files.deleteIfExists(snapshotFile(world).toPath());
+        } else {
+            BinarySnapshotFile.write(snapshotFile(world).toPath(), chests);
+        }
+        journal(world).truncate();
+    }
+
+    /**
+     * Set every shard aside with a .migrated suffix once its chests have been copied
+     * into another store, so they are not picked up again
+     */
+    public void retireShards() throws IOException {
+        File[] files = shardFolder.listFiles();
+        if (files == null) return;
+
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(SNAPSHOT_SUFFIX) || name.endsWith(JOURNAL_SUFFIX)) {
+                Files.move(file.toPath(), file.toPath().resolveSibling(name + ".migrated"),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        journals.clear();
+    }
+
+    private File snapshotFile(String world) {
+        return new File(shardFolder, world + SNAPSHOT_SUFFIX);
+    }
+
+    private ChestJournal journal(String world) {
+        return journals.computeIfAbsent(world, name -> new ChestJournal(new File(shardFolder, name + JOURNAL_SUFFIX)));
+    }
+
+    /**
+     * A later migration would overwrite the shards, so nothing is read or written until it succeeds
+     */
+    private void checkMigrated() throws IOException {
+        if (migrationError != null) {
+            throw new IOException("Legacy expedition chest data was not migrated", migrationError);
+        }
+    }
+
+    /**
+     * One-shot split of the single-file data (data.yml, or data.bin + data.journal)
+     * into per-world shards, run once when the store is created. The old files are
+     * kept with a .migrated suffix.
+     */
+    private void migrateLegacy() throws IOException {
+        File legacyYaml = new File(dataFolder, "data.yml");
+        File legacySnapshot = new File(dataFolder, "data.bin");
+        File legacyJournal = new File(dataFolder, "data.journal");
+        if (!legacyYaml.exists() && !legacySnapshot.exists() && !legacyJournal.exists()) return;
+
+        Map<String, ChestSnapshot> chests = new LinkedHashMap<>();
+        List<File> migrated = new ArrayList<>();
+        if (legacySnapshot.exists() || legacyJournal.exists()) {
+            if (legacySnapshot.exists()) {
+                for (ChestSnapshot chest : BinarySnapshotFile.read(legacySnapshot.toPath())) {
+                    chests.put(chest.id(), chest);
+                }
+                migrated.add(legacySnapshot);
+            }
+            if (legacyJournal.exists()) {
+                new ChestJournal(legacyJournal).replay(chests);
+                migrated.add(legacyJournal);
+            }
+            if (legacyYaml.exists()) {
+                // Older than data.bin, so already contained in it
+                migrated.add(legacyYaml);
+            }
+        } else {
+            for (ChestSnapshot chest : YamlSnapshotFile.read(legacyYaml, logger)) {
+                chests.put(chest.id(), chest);
+            }
+            migrated.add(legacyYaml);
+        }
+
+        Map<String, List<ChestSnapshot>> byWorld = new LinkedHashMap<>();
+        for (ChestSnapshot chest : chests.values()) {
+            byWorld.computeIfAbsent(chest.world(), world -> new ArrayList<>()).add(chest);
+        }
+        Files.createDirectories(shardFolder.toPath());
+        for (Map.Entry<String, List<ChestSnapshot>> entry : byWorld.entrySet()) {
+            compact(entry.getKey(), entry.getValue());
+        }
+
+        for (File file : migrated) {
+            Files.move(file.toPath(), file.toPath().resolveSibling(file.getName() + ".migrated"),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+        logger.info("Split " + chests.size() + " expedition chest(s) into " + byWorld.size() + " world shard(s)");
+    }
+}
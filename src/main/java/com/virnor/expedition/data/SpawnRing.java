@@ -0,0 +1,108 @@
+package com.virnor.expedition.data;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The positions guardians spawn at and are sent back to, evenly spaced on a
+ * circle around the chest and lifted out of solid blocks. Computed from chunk
+ * snapshots, so it can be built off the main thread.
+ */
+public class SpawnRing {
+
+    // How far a position may be lifted above the block over the chest
+    private static final int MAX_CLIMB = 4;
+
+    private final Location[] positions;
+    // Positions that were still inside a solid block after the climb, so a solid block there is expected
+    private final boolean[] buried;
+    private final double radius;
+
+    private SpawnRing(Location[] positions, boolean[] buried, double radius) {
+        this.positions = positions;
+        this.buried = buried;
+        this.radius = radius;
+    }
+
+    /**
+     * Whether this ring was built for the given spawn radius and mob count
+     */
+    public boolean matches(double radius, int count) {
+        return this.radius == radius && positions.length == count;
+    }
+
+    public int size() {
+        return positions.length;
+    }
+
+    /**
+     * The position for the given index, wrapping around the ring. The returned location must not be changed.
+     */
+    public Location get(int index) {
+        return positions[Math.floorMod(index, positions.length)];
+    }
+
+    public int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(positions.length);
+    }
+
+    /**
+     * Whether a solid block has appeared at a position since the ring was built,
+     * e.g. moved there by a piston, grown or flowed in. Main thread only; a position
+     * in an unloaded chunk is not checked.
+     */
+    public boolean isObstructed(int index) {
+        int i = Math.floorMod(index, positions.length);
+        if (buried[i]) return false;
+
+        Location position = positions[i];
+        if (!position.getWorld().isChunkLoaded(position.getBlockX() >> 4, position.getBlockZ() >> 4)) return false;
+        return position.getBlock().getType().isSolid();
+    }
+
+    /**
+     * Chunk coordinate range the ring of a chest can touch: minX, maxX, minZ, maxZ
+     */
+    public static int[] chunkBounds(Location chestLoc, double radius) {
+        double centerX = chestLoc.getBlockX() + 0.5;
+        double centerZ = chestLoc.getBlockZ() + 0.5;
+        return new int[] {
+            Location.locToBlock(centerX - radius) >> 4,
+            Location.locToBlock(centerX + radius) >> 4,
+            Location.locToBlock(centerZ - radius) >> 4,
+            Location.locToBlock(centerZ + radius) >> 4
+        };
+    }
+
+    /**
+     * Build the ring from snapshots of every chunk in {@link #chunkBounds}, keyed by
+     * {@link ChestSpatialIndex#chunkKey}. Safe to call from any thread.
+     */
+    public static SpawnRing compute(Location chestLoc, double radius, int count, int maxY,
+                                    Map<Long, ChunkSnapshot> chunks) {
+        Location[] positions = new Location[count];
+        boolean[] buried = new boolean[count];
+        int baseY = chestLoc.getBlockY() + 1;
+
+        for (int i = 0; i < count; i++) {
+            double angle = (2 * Math.PI / count) * i;
+            double x = chestLoc.getBlockX() + 0.5 + (radius * Math.cos(angle));
+            double z = chestLoc.getBlockZ() + 0.5 + (radius * Math.sin(angle));
+            int blockX = Location.locToBlock(x);
+            int blockZ = Location.locToBlock(z);
+
+            ChunkSnapshot snapshot = chunks.get(ChestSpatialIndex.chunkKey(blockX >> 4, blockZ >> 4));
+            int y = baseY;
+            while (y < baseY + MAX_CLIMB && y < maxY
+                    && snapshot.getBlockType(blockX & 15, y, blockZ & 15).isSolid()) {
+                y++;
+            }
+            positions[i] = new Location(chestLoc.getWorld(), x, y, z);
+            buried[i] = snapshot.getBlockType(blockX & 15, y, blockZ & 15).isSolid();
+        }
+        return new SpawnRing(positions, buried, radius);
+    }
+}
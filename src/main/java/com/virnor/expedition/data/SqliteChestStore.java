@@ -0,0 +1,204 @@
+package com.virnor.expedition.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Embedded SQLite backend (data.db) using the driver bundled with the server.
+ * Each chest is a row, so a change is a row update instead of a file rewrite,
+ * and (world, state) is indexed so a world can be loaded on its own.
+ */
+public class SqliteChestStore implements ChestStore {
+
+    private static final String DRIVER = "org.sqlite.JDBC";
+    private static final String TABLE = "expedition_chests";
+
+    private static final String UPSERT_SQL = "INSERT OR REPLACE INTO " + TABLE
+            + " (id, world, x, y, z, state, owner, cooldown_expire, ownership_expire)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_SQL = "DELETE FROM " + TABLE + " WHERE id = ?";
+    private static final String SELECT_SQL = "SELECT id, world, x, y, z, state, owner, cooldown_expire, ownership_expire FROM " + TABLE;
+
+    private final File databaseFile;
+    private Connection connection;
+
+    public SqliteChestStore(File databaseFile) {
+        this.databaseFile = databaseFile;
+    }
+
+    private Connection getConnection() throws SQLException {
+        if (connection == null || connection.isClosed()) {
+            try {
+                Class.forName(DRIVER);
+            } catch (ClassNotFoundException e) {
+                throw new SQLException("SQLite driver " + DRIVER + " is not available on this server, use storage.type FILE", e);
+            }
+            databaseFile.getParentFile().mkdirs();
+            connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode=WAL");
+                statement.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+                        + "id TEXT PRIMARY KEY, "
+                        + "world TEXT NOT NULL, "
+                        + "x INTEGER NOT NULL, "
+                        + "y INTEGER NOT NULL, "
+                        + "z INTEGER NOT NULL, "
+                        + "state TEXT NOT NULL, "
+                        + "owner TEXT, "
+                        + "cooldown_expire INTEGER NOT NULL DEFAULT 0, "
+                        + "ownership_expire INTEGER NOT NULL DEFAULT 0)");
+                statement.execute("CREATE INDEX IF NOT EXISTS idx_" + TABLE + "_world_state ON " + TABLE + " (world, state)");
+            }
+        }
+        return connection;
+    }
+
+    @Override
+    public Set<String> worlds() throws IOException {
+        Set<String> worlds = new TreeSet<>();
+        try (Statement statement = getConnection().createStatement();
+             ResultSet rs = statement.executeQuery("SELECT DISTINCT world FROM " + TABLE)) {
+            while (rs.next()) {
+                worlds.add(rs.getString(1));
+            }
+        } catch (SQLException e) {
+            throw new IOException("Could not query " + databaseFile.getName(), e);
+        }
+        return worlds;
+    }
+
+    @Override
+    public Map<String, ChestSnapshot> loadWorld(String world) throws IOException {
+        Map<String, ChestSnapshot> chests = new LinkedHashMap<>();
+        try (PreparedStatement statement = getConnection().prepareStatement(SELECT_SQL + " WHERE world = ?")) {
+            statement.setString(1, world);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    ChestSnapshot chest = readRow(rs);
+                    chests.put(chest.id(), chest);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException("Could not load chests of " + world + " from " + databaseFile.getName(), e);
+        }
+        return chests;
+    }
+
+    @Override
+    public Set<String> loadIds() throws IOException {
+        Set<String> ids = new HashSet<>();
+        try (Statement statement = getConnection().createStatement();
+             ResultSet rs = statement.executeQuery("SELECT id FROM " + TABLE)) {
+            while (rs.next()) {
+                ids.add(rs.getString(1));
+            }
+        } catch (SQLException e) {
+            throw new IOException("Could not query " + databaseFile.getName(), e);
+        }
+        return ids;
+    }
+
+    @Override
+    public void upsertAll(String world, Collection<ChestSnapshot> chests) throws IOException {
+        if (chests.isEmpty()) return;
+        try {
+            Connection conn = getConnection();
+            conn.setAutoCommit(false);
+            try (PreparedStatement statement = conn.prepareStatement(UPSERT_SQL)) {
+                for (ChestSnapshot chest : chests) {
+                    statement.setString(1, chest.id());
+                    statement.setString(2, chest.world());
+                    statement.setInt(3, chest.x());
+                    statement.setInt(4, chest.y());
+                    statement.setInt(5, chest.z());
+                    statement.setString(6, chest.state().name());
+                    statement.setString(7, chest.ownerUUID() != null ? chest.ownerUUID().toString() : null);
+                    statement.setLong(8, chest.cooldownExpireTime());
+                    statement.setLong(9, chest.ownershipExpireTime());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Could not save chests to " + databaseFile.getName(), e);
+        }
+    }
+
+    @Override
+    public void deleteAll(String world, Collection<String> ids) throws IOException {
+        if (ids.isEmpty()) return;
+        try {
+            Connection conn = getConnection();
+            conn.setAutoCommit(false);
+            try (PreparedStatement statement = conn.prepareStatement(DELETE_SQL)) {
+                for (String id : ids) {
+                    statement.setString(1, id);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Could not delete chests from " + databaseFile.getName(), e);
+        }
+    }
+
+    /**
+     * Served by the (world, state) index
+     */
+    @Override
+    public List<ChestSnapshot> findByState(String world, ExpeditionState state) throws IOException {
+        List<ChestSnapshot> result = new ArrayList<>();
+        try (PreparedStatement statement = getConnection().prepareStatement(SELECT_SQL + " WHERE world = ? AND state = ?")) {
+            statement.setString(1, world);
+            statement.setString(2, state.name());
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    result.add(readRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException("Could not query " + databaseFile.getName(), e);
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (connection == null) return;
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new IOException("Could not close " + databaseFile.getName(), e);
+        } finally {
+            connection = null;
+        }
+    }
+
+    private ChestSnapshot readRow(ResultSet rs) throws SQLException {
+        String owner = rs.getString("owner");
+        return new ChestSnapshot(
+                rs.getString("id"),
+                rs.getString("world"),
+                rs.getInt("x"),
+                rs.getInt("y"),
+                rs.getInt("z"),
+                ExpeditionState.valueOf(rs.getString("state")),
+                owner != null ? UUID.fromString(owner) : null,
+                rs.getLong("cooldown_expire"),
+                rs.getLong("ownership_expire"));
+    }
+}
@@ -0,0 +1,68 @@
+package com.virnor.expedition.data;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Human-readable YAML form of the chest data.
+ * Used to migrate the legacy data.yml and for admin exports.
+ */
+public final class YamlSnapshotFile {
+
+    private YamlSnapshotFile() {
+    }
+
+    public static List<ChestSnapshot> read(File file, Logger logger) {
+        List<ChestSnapshot> chests = new ArrayList<>();
+
+        YamlConfiguration dataConfig = YamlConfiguration.loadConfiguration(file);
+        ConfigurationSection chestsSection = dataConfig.getConfigurationSection("chests");
+        if (chestsSection == null) return chests;
+
+        for (String id : chestsSection.getKeys(false)) {
+            ConfigurationSection chestSection = chestsSection.getConfigurationSection(id);
+            if (chestSection == null) continue;
+
+            try {
+                String owner = chestSection.getString("owner");
+                chests.add(new ChestSnapshot(
+                        id,
+                        chestSection.getString("world"),
+                        (int) Math.floor(chestSection.getDouble("x")),
+                        (int) Math.floor(chestSection.getDouble("y")),
+                        (int) Math.floor(chestSection.getDouble("z")),
+                        ExpeditionState.valueOf(chestSection.getString("state", "READY")),
+                        owner != null ? UUID.fromString(owner) : null,
+                        chestSection.getLong("cooldownExpire", 0),
+                        chestSection.getLong("ownershipExpire", 0)));
+            } catch (IllegalArgumentException e) {
+                logger.warning("Skipping invalid expedition chest in " + file.getName() + ": " + id);
+            }
+        }
+        return chests;
+    }
+
+    public static void write(File file, Collection<ChestSnapshot> chests) throws IOException {
+        YamlConfiguration dataConfig = new YamlConfiguration();
+
+        for (ChestSnapshot chest : chests) {
+            String path = "chests." + chest.id();
+            dataConfig.set(path + ".world", chest.world());
+            dataConfig.set(path + ".x", chest.x());
+            dataConfig.set(path + ".y", chest.y());
+            dataConfig.set(path + ".z", chest.z());
+            dataConfig.set(path + ".state", chest.state().name());
+            dataConfig.set(path + ".owner", chest.ownerUUID() != null ? chest.ownerUUID().toString() : null);
+            dataConfig.set(path + ".cooldownExpire", chest.cooldownExpireTime());
+            dataConfig.set(path + ".ownershipExpire", chest.ownershipExpireTime());
+        }
+
+        AtomicFiles.write(file.toPath(), dataConfig.saveToString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,81 @@
+package com.virnor.expedition.hologram;
+
+import com.virnor.expedition.utils.ColorUtils;
+import org.bukkit.Location;
+import org.bukkit.entity.ArmorStand;
+import org.bukkit.entity.EntityType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Legacy hologram with one invisible marker ArmorStand per line.
+ * A different line count needs a new stack of stands.
+ */
+public class ArmorStandHologram implements Hologram {
+
+    private final List<ArmorStand> stands;
+    private final String[] lines;
+
+    public ArmorStandHologram(Location baseLoc, double lineSpacing, String[] lines) {
+        this.stands = new ArrayList<>();
+        this.lines = lines.clone();
+
+        for (int i = 0; i < lines.length; i++) {
+            Location lineLoc = baseLoc.clone().subtract(0, i * lineSpacing, 0);
+            stands.add(createLine(lineLoc, lines[i]));
+        }
+    }
+
+    @Override
+    public boolean canShow(int lineCount) {
+        if (stands.size() != lineCount) return false;
+        for (ArmorStand stand : stands) {
+            if (!stand.isValid()) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void setLines(String[] newLines) {
+        for (int i = 0; i < newLines.length; i++) {
+            if (newLines[i].equals(lines[i])) continue;
+
+            ArmorStand stand = stands.get(i);
+            if (stand != null && !stand.isDead()) {
+                stand.setCustomName(ColorUtils.colorize(newLines[i]));
+                lines[i] = newLines[i];
+            }
+        }
+    }
+
+    @Override
+    public void remove() {
+        for (ArmorStand stand : stands) {
+            if (stand != null && !stand.isDead()) {
+                stand.remove();
+            }
+        }
+    }
+
+    @Override
+    public List<ArmorStand> getEntities() {
+        return stands;
+    }
+
+    private ArmorStand createLine(Location location, String text) {
+        ArmorStand stand = (ArmorStand) location.getWorld().spawnEntity(location, EntityType.ARMOR_STAND);
+
+        stand.setVisible(false);
+        stand.setGravity(false);
+        stand.setCanPickupItems(false);
+        stand.setCustomName(ColorUtils.colorize(text));
+        stand.setCustomNameVisible(true);
+        stand.setSmall(true);
+        stand.setMarker(true);
+        stand.setInvulnerable(true);
+        stand.setPersistent(false);
+
+        return stand;
+    }
+}
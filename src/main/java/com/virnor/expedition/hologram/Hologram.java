@@ -0,0 +1,25 @@
+package com.virnor.expedition.hologram;
+
+import org.bukkit.entity.Entity;
+
+import java.util.List;
+
+/**
+ * The entities showing one chest's hologram. Implementations remember the text
+ * they last showed so unchanged text is neither colorized again nor re-sent.
+ * The entities are not persistent: they go away with their chunk, and the
+ * hologram is spawned again when its chest is next refreshed.
+ */
+public interface Hologram {
+
+    /**
+     * Whether this hologram is still spawned and can show the given number of lines in place
+     */
+    boolean canShow(int lineCount);
+
+    void setLines(String[] lines);
+
+    void remove();
+
+    List<? extends Entity> getEntities();
+}
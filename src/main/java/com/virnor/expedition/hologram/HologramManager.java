@@ -5,15 +5,14 @@ import com.virnor.expedition.config.ConfigManager;
 import com.virnor.expedition.data.ExpeditionChest;
 import com.virnor.expedition.utils.ColorUtils;
 import org.bukkit.Location;
-import org.bukkit.entity.ArmorStand;
-import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Entity;
 
 import java.util.*;
 
 public class HologramManager {
 
     private final VirnorExpedition plugin;
-    private final Map<String, List<ArmorStand>> holograms;
+    private final Map<ExpeditionChest, Hologram> holograms;
 
     public HologramManager(VirnorExpedition plugin) {
         this.plugin = plugin;
@@ -27,110 +26,103 @@ public class HologramManager {
         
         ConfigManager config = plugin.getConfigManager();
         Location baseLoc = chest.getLocation().clone().add(0.5, config.getHologramHeightOffset(), 0.5);
-        List<ArmorStand> stands = new ArrayList<>();
-        
         double lineSpacing = config.getHologramLineSpacing();
         
-        for (int i = 0; i < lines.length; i++) {
-            Location lineLoc = baseLoc.clone().subtract(0, i * lineSpacing, 0);
-            ArmorStand stand = createHologramLine(lineLoc, lines[i]);
-            stands.add(stand);
-        }
+        Hologram hologram = config.isHologramTextDisplay()
+            ? new TextDisplayHologram(baseLoc, lineSpacing, config.getHologramViewRange(), lines)
+            : new ArmorStandHologram(baseLoc, lineSpacing, lines);
+        holograms.put(chest, hologram);
         
-        holograms.put(chest.getId(), stands);
+        for (Entity entity : hologram.getEntities()) {
+            plugin.getEntityTags().tagDisplay(entity, chest);
+            plugin.getVisibilityManager().attach(chest, entity);
+        }
     }
 
     public void updateHologram(ExpeditionChest chest, String... lines) {
         if (!plugin.getConfigManager().isHologramEnabled()) return;
         
-        List<ArmorStand> stands = holograms.get(chest.getId());
+        Hologram hologram = holograms.get(chest);
         
-        if (stands == null || stands.size() != lines.length) {
+        if (hologram == null || !hologram.canShow(lines.length)) {
             createHologram(chest, lines);
             return;
         }
         
-        for (int i = 0; i < lines.length; i++) {
-            if (i < stands.size()) {
-                ArmorStand stand = stands.get(i);
-                if (stand != null && !stand.isDead()) {
-                    stand.setCustomName(ColorUtils.colorize(lines[i]));
-                }
-            }
-        }
+        // Only text that changed is sent
+        hologram.setLines(lines);
     }
 
     public void removeHologram(ExpeditionChest chest) {
-        List<ArmorStand> stands = holograms.remove(chest.getId());
-        if (stands != null) {
-            for (ArmorStand stand : stands) {
-                if (stand != null && !stand.isDead()) {
-                    stand.remove();
-                }
-            }
+        Hologram hologram = holograms.remove(chest);
+        if (hologram != null) {
+            hologram.remove();
         }
     }
 
+    /**
+     * The entities currently showing a chest's hologram
+     */
+    public List<? extends Entity> getEntities(ExpeditionChest chest) {
+        Hologram hologram = holograms.get(chest);
+        return hologram != null ? hologram.getEntities() : Collections.emptyList();
+    }
+
     public void removeAllHolograms() {
-        for (List<ArmorStand> stands : holograms.values()) {
-            for (ArmorStand stand : stands) {
-                if (stand != null && !stand.isDead()) {
-                    stand.remove();
-                }
-            }
+        for (Hologram hologram : holograms.values()) {
+            hologram.remove();
         }
         holograms.clear();
     }
 
-    private ArmorStand createHologramLine(Location location, String text) {
-        ArmorStand stand = (ArmorStand) location.getWorld().spawnEntity(location, EntityType.ARMOR_STAND);
+    public void reloadHolograms() {
+        removeAllHolograms();
         
-        stand.setVisible(false);
-        stand.setGravity(false);
-        stand.setCanPickupItems(false);
-        stand.setCustomName(ColorUtils.colorize(text));
-        stand.setCustomNameVisible(true);
-        stand.setSmall(true);
-        stand.setMarker(true);
-        stand.setInvulnerable(true);
-        stand.setPersistent(true);
+        if (!plugin.getConfigManager().isHologramEnabled()) return;
         
-        return stand;
+        // Dormant chests get theirs back when a player comes near
+        for (ExpeditionChest chest : plugin.getDataManager().getExpeditionChests().values()) {
+            if (!chest.isDormant()) {
+                refreshHologram(chest);
+            }
+        }
     }
 
-    public void reloadHolograms() {
-        removeAllHolograms();
-        
+    /**
+     * Bring a chest's hologram in line with its current state, creating it if missing
+     */
+    public void refreshHologram(ExpeditionChest chest) {
         if (!plugin.getConfigManager().isHologramEnabled()) return;
         
         ConfigManager config = plugin.getConfigManager();
         
-        for (ExpeditionChest chest : plugin.getDataManager().getExpeditionChests().values()) {
-            switch (chest.getState()) {
-                case READY -> createHologram(chest, 
-                    config.getHologramTitle(), 
-                    config.getHologramStatusReady());
-                case ACTIVE -> createHologram(chest, 
-                    config.getHologramTitle(), 
-                    config.getHologramStatusFighting());
-                case CONQUERED -> {
-                    String ownerName = "Bilinmiyor";
-                    if (chest.getOwnerUUID() != null) {
-                        var player = plugin.getServer().getPlayer(chest.getOwnerUUID());
-                        if (player != null) {
-                            ownerName = player.getName();
-                        }
-                    }
-                    createHologram(chest, 
-                        config.getHologramTitle(),
-                        config.getHologramStatusOwner().replace("%player%", ownerName),
-                        config.getHologramStatusTimeLeft().replace("%time%", ColorUtils.formatTime(chest.getRemainingOwnershipTime())));
-                }
-                case COOLDOWN -> createHologram(chest, 
-                    config.getHologramTitle(),
-                    config.getHologramStatusCooldown().replace("%time%", ColorUtils.formatTime(chest.getRemainingCooldown())));
-            }
+        switch (chest.getState()) {
+            case READY -> updateHologram(chest, 
+                config.getHologramTitle(), 
+                config.getHologramStatusReady());
+            case ACTIVE -> updateHologram(chest, 
+                config.getHologramTitle(), 
+                chest.getPendingSpawns() > 0 ? config.getHologramStatusSpawning() : config.getHologramStatusFighting());
+            case CONQUERED -> updateHologram(chest, 
+                config.getHologramTitle(),
+                config.getHologramStatusOwner().replace("%player%", getOwnerName(chest)),
+                config.getHologramStatusTimeLeft().replace("%time%", ColorUtils.formatTime(chest.getRemainingOwnershipTime())));
+            case COOLDOWN -> updateHologram(chest, 
+                config.getHologramTitle(),
+                config.getHologramStatusCooldown().replace("%time%", ColorUtils.formatTime(chest.getRemainingCooldown())));
+        }
+    }
+    
+    /**
+     * Owner name shown on a conquered chest. Cached on the chest at conquest;
+     * after a restart it is looked up once.
+     */
+    public String getOwnerName(ExpeditionChest chest) {
+        if (chest.getOwnerName() == null && chest.getOwnerUUID() != null) {
+            String name = plugin.getServer().getOfflinePlayer(chest.getOwnerUUID()).getName();
+            chest.setOwnerName(name != null ? name : "Bilinmiyor");
         }
+        return chest.getOwnerName() != null ? chest.getOwnerName() : "Bilinmiyor";
     }
     
     // Helper methods for creating holograms with config messages
@@ -0,0 +1,80 @@
+package com.virnor.expedition.hologram;
+
+import com.virnor.expedition.utils.ColorUtils;
+import org.bukkit.Location;
+import org.bukkit.entity.Display;
+import org.bukkit.entity.TextDisplay;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Hologram backed by a single TextDisplay holding all lines. The text is
+ * changed in place for any line count, and the view range keeps far-away
+ * clients from being sent the entity at all.
+ */
+public class TextDisplayHologram implements Hologram {
+
+    // Display view range is a multiplier of 64 blocks
+    private static final float VIEW_RANGE_UNIT = 64.0f;
+
+    private final Location topLoc;
+    private final double lineSpacing;
+    private final TextDisplay display;
+    private String text;
+    private int lineCount;
+
+    public TextDisplayHologram(Location topLoc, double lineSpacing, double viewRange, String[] lines) {
+        this.topLoc = topLoc;
+        this.lineSpacing = lineSpacing;
+        this.text = String.join("\n", lines);
+        this.lineCount = lines.length;
+
+        String rendered = ColorUtils.colorize(text);
+        this.display = topLoc.getWorld().spawn(bottomLocation(lineCount), TextDisplay.class, entity -> {
+            entity.setText(rendered);
+            entity.setBillboard(Display.Billboard.CENTER);
+            entity.setViewRange((float) viewRange / VIEW_RANGE_UNIT);
+            entity.setAlignment(TextDisplay.TextAlignment.CENTER);
+            entity.setDefaultBackground(false);
+            entity.setShadowed(true);
+            entity.setPersistent(false);
+        });
+    }
+
+    @Override
+    public boolean canShow(int lineCount) {
+        return display.isValid();
+    }
+
+    @Override
+    public void setLines(String[] lines) {
+        String newText = String.join("\n", lines);
+        if (newText.equals(text)) return;
+
+        display.setText(ColorUtils.colorize(newText));
+        text = newText;
+
+        // Text grows upwards from the entity, so keep the first line where it was
+        if (lines.length != lineCount) {
+            lineCount = lines.length;
+            display.teleport(bottomLocation(lineCount));
+        }
+    }
+
+    @Override
+    public void remove() {
+        if (display.isValid()) {
+            display.remove();
+        }
+    }
+
+    @Override
+    public List<TextDisplay> getEntities() {
+        return Collections.singletonList(display);
+    }
+
+    private Location bottomLocation(int lines) {
+        return topLoc.clone().subtract(0, Math.max(0, lines - 1) * lineSpacing, 0);
+    }
+}
@@ -0,0 +1,116 @@
+package com.virnor.expedition.hologram;
+
+import com.virnor.expedition.VirnorExpedition;
+import com.virnor.expedition.config.ConfigManager;
+import com.virnor.expedition.data.ExpeditionChest;
+import com.virnor.expedition.managers.ProximityTracker;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Shows hologram and health bar entities only to players near their chest.
+ * The entities are hidden by default and shown or hidden per player as the
+ * player enters or leaves the chest's visible radius, so their name and text
+ * updates are only sent to those players.
+ */
+public class VisibilityManager {
+
+    private final VirnorExpedition plugin;
+    private final ProximityTracker viewerTracker;
+
+    public VisibilityManager(VirnorExpedition plugin) {
+        this.plugin = plugin;
+        // Health bars follow mobs up to the teleport distance, so never cull closer than that
+        this.viewerTracker = new ProximityTracker(plugin,
+            () -> {
+                ConfigManager config = plugin.getConfigManager();
+                return isEnabled() ? Math.max(config.getHologramVisibleRadius(), config.getTeleportDistance()) : 0;
+            },
+            new ProximityTracker.Callback() {
+                @Override
+                public void onEnter(Player player, ExpeditionChest chest) {
+                    for (Entity entity : getEntities(chest)) {
+                        player.showEntity(plugin, entity);
+                    }
+                }
+
+                @Override
+                public void onLeave(Player player, ExpeditionChest chest) {
+                    for (Entity entity : getEntities(chest)) {
+                        player.hideEntity(plugin, entity);
+                    }
+                }
+            });
+    }
+
+    public boolean isEnabled() {
+        return plugin.getConfigManager().getHologramVisibleRadius() > 0;
+    }
+
+    /**
+     * Hide a freshly spawned hologram or health bar entity from everyone except the chest's current viewers
+     */
+    public void attach(ExpeditionChest chest, Entity entity) {
+        if (!isEnabled()) return;
+
+        entity.setVisibleByDefault(false);
+        for (UUID uuid : viewerTracker.getPlayersNear(chest)) {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player != null) {
+                player.showEntity(plugin, entity);
+            }
+        }
+    }
+
+    /**
+     * Apply a reloaded visible radius to the entities that already exist. Entities
+     * hidden by default are shown to everyone again when culling is turned off; when
+     * it is on, they are hidden and shown right away to the players already nearby.
+     */
+    public void reload() {
+        boolean enabled = isEnabled();
+        if (!enabled) {
+            // Hiding from current viewers first undoes their per-player state
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                viewerTracker.remove(player);
+            }
+        }
+
+        for (ExpeditionChest chest : plugin.getDataManager().getExpeditionChests().values()) {
+            for (Entity entity : getEntities(chest)) {
+                entity.setVisibleByDefault(!enabled);
+            }
+        }
+
+        if (enabled) {
+            // Players already near a chest would otherwise only see it again after moving
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                viewerTracker.update(player, player.getLocation());
+            }
+        }
+    }
+
+    public void update(Player player, Location location) {
+        viewerTracker.update(player, location);
+    }
+
+    public void remove(Player player) {
+        viewerTracker.remove(player);
+    }
+
+    public void forget(ExpeditionChest chest) {
+        viewerTracker.forget(chest);
+    }
+
+    private List<Entity> getEntities(ExpeditionChest chest) {
+        List<Entity> entities = new ArrayList<>(plugin.getHologramManager().getEntities(chest));
+        entities.addAll(plugin.getDamageTracker().getHealthBars(chest));
+        return entities;
+    }
+}
@@ -93,6 +93,8 @@ public class ChestInteractListener implements Listener {
             player.sendMessage(ColorUtils.colorize(config.getMsgPrefix() + config.getMsgOwnershipExpired()));
             chest.setState(ExpeditionState.READY);
             chest.setOwnerUUID(null);
+            plugin.getExpeditionManager().scheduleExpiration(chest);
+            plugin.getDataManager().markDirty(chest);
             plugin.getHologramManager().updateHologram(chest, 
                 config.getHologramTitle(), 
                 config.getHologramStatusReady());
@@ -118,6 +120,7 @@ public class ChestInteractListener implements Listener {
             chest.setState(ExpeditionState.COOLDOWN);
             chest.setCooldownExpireTime(System.currentTimeMillis() + (config.getCooldownDuration() * 1000L));
             chest.setOwnerUUID(null);
+            plugin.getExpeditionManager().scheduleExpiration(chest);
             
             // Update hologram
             plugin.getHologramManager().updateHologram(chest, 
@@ -130,8 +133,8 @@ public class ChestInteractListener implements Listener {
             // Send message
             player.sendMessage(ColorUtils.colorize(config.getMsgPrefix() + config.getMsgLootReceived()));
             
-            // Save data
-            plugin.getDataManager().saveData();
+            // Queue for the next background save
+            plugin.getDataManager().markDirty(chest);
             
             success = true;
         } finally {
@@ -1,7 +1,7 @@
 package com.virnor.expedition.listeners;
 
 import com.virnor.expedition.VirnorExpedition;
-import com.virnor.expedition.managers.MobManager;
+import com.virnor.expedition.data.ExpeditionChest;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
@@ -10,10 +10,14 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.entity.EntityPotionEffectEvent;
+import org.bukkit.event.entity.EntityRegainHealthEvent;
 import org.bukkit.projectiles.ProjectileSource;
 
 /**
- * Listens for damage events on expedition mobs to track player damage and update health bars
+ * Listens for damage events on expedition mobs to track player damage, and for
+ * health changes to queue health bar redraws
  */
 public class DamageListener implements Listener {
 
@@ -27,15 +31,9 @@ public class DamageListener implements Listener {
     public void onEntityDamage(EntityDamageByEntityEvent event) {
         Entity damaged = event.getEntity();
         
-        // Check if damaged entity is an expedition mob
-        MobManager mobManager = plugin.getMobManager();
-        if (!mobManager.isExpeditionMob(damaged)) {
-            return;
-        }
-        
-        // Get the chest ID for this mob
-        String chestId = mobManager.getChestIdByMob(damaged.getUniqueId());
-        if (chestId == null) return;
+        // Get the chest for this mob, if it is an expedition mob
+        ExpeditionChest chest = plugin.getMobManager().getChestByMob(damaged.getUniqueId());
+        if (chest == null) return;
         
         // Get the damager (handle projectiles)
         Player damager = getDamager(event.getDamager());
@@ -43,15 +41,31 @@ public class DamageListener implements Listener {
         
         // Record the damage
         double finalDamage = event.getFinalDamage();
-        plugin.getDamageTracker().recordDamage(chestId, damager.getUniqueId(), finalDamage);
-        
-        // Update health bar after a tick (to account for damage being applied)
-        if (damaged instanceof LivingEntity livingEntity) {
-            plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-                if (!livingEntity.isDead()) {
-                    plugin.getDamageTracker().updateHealthBar(livingEntity);
-                }
-            }, 1L);
+        plugin.getDamageTracker().recordDamage(chest, damager.getUniqueId(), finalDamage);
+    }
+
+    /**
+     * Queue a health bar redraw; the bar is redrawn once at the next tick however many hits land
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onHealthLoss(EntityDamageEvent event) {
+        if (event.getEntity() instanceof LivingEntity livingEntity) {
+            plugin.getDamageTracker().markHealthDirty(livingEntity);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onHealthRegain(EntityRegainHealthEvent event) {
+        if (event.getEntity() instanceof LivingEntity livingEntity) {
+            plugin.getDamageTracker().markHealthDirty(livingEntity);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPotionEffect(EntityPotionEffectEvent event) {
+        // Health boost and similar effects change max health
+        if (event.getEntity() instanceof LivingEntity livingEntity) {
+            plugin.getDamageTracker().markHealthDirty(livingEntity);
         }
     }
 
@@ -0,0 +1,37 @@
+package com.virnor.expedition.listeners;
+
+import com.destroystokyo.paper.event.entity.EntityAddToWorldEvent;
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import com.virnor.expedition.VirnorExpedition;
+import org.bukkit.entity.Entity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.EntitiesLoadEvent;
+
+public class EntityListener implements Listener {
+
+    private final VirnorExpedition plugin;
+
+    public EntityListener(VirnorExpedition plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityAdd(EntityAddToWorldEvent event) {
+        plugin.getMobManager().onGuardianAdded(event.getEntity());
+    }
+
+    // Fired for deaths, removals and chunk unloads alike
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(EntityRemoveFromWorldEvent event) {
+        plugin.getMobManager().getGuardians().unbind(event.getEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesLoad(EntitiesLoadEvent event) {
+        for (Entity entity : event.getEntities()) {
+            plugin.getMobManager().reattach(entity);
+        }
+    }
+}
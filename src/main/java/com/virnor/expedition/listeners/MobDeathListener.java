@@ -23,22 +23,14 @@ public class MobDeathListener implements Listener {
     public void onMobDeath(EntityDeathEvent event) {
         LivingEntity entity = event.getEntity();
         
-        // Check if this is an expedition mob
-        if (!plugin.getMobManager().isExpeditionMob(entity)) {
-            return;
-        }
+        // Get the chest this mob belongs to, if it is an expedition mob
+        ExpeditionChest chest = plugin.getMobManager().getChestByMob(entity.getUniqueId());
+        if (chest == null) return;
 
         // Remove default drops
         event.getDrops().clear();
         event.setDroppedExp(0);
 
-        // Get the chest ID this mob belongs to
-        String chestId = plugin.getMobManager().getChestIdByMob(entity.getUniqueId());
-        if (chestId == null) return;
-
-        ExpeditionChest chest = plugin.getDataManager().getExpeditionChest(chestId);
-        if (chest == null) return;
-
         // Update mob tracking
         plugin.getMobManager().onMobDeath(entity.getUniqueId());
 
@@ -49,24 +41,25 @@ public class MobDeathListener implements Listener {
             
             // Determine the winner based on config (MOST_DAMAGE or LAST_HIT)
             DamageTracker damageTracker = plugin.getDamageTracker();
-            Player winner = damageTracker.determineLootWinner(chestId, lastHitter);
+            Player winner = damageTracker.determineLootWinner(chest, lastHitter);
             
             if (winner != null) {
                 // Announce damage results to all participants
-                damageTracker.announceDamageResults(chestId, winner);
+                damageTracker.announceDamageResults(chest, winner);
                 
                 // Give ownership to winner
                 plugin.getExpeditionManager().onAllMobsKilled(chest, winner);
             } else {
                 // No player killed the last mob, reset the chest
                 chest.setState(ExpeditionState.READY);
+                plugin.getDataManager().markDirty(chest);
                 plugin.getHologramManager().updateHologram(chest, 
                     plugin.getConfigManager().getHologramTitle(), 
                     plugin.getConfigManager().getHologramStatusReady());
             }
             
             // Clear damage tracking for this chest
-            damageTracker.clearChestDamage(chestId);
+            damageTracker.clearChestDamage(chest);
         }
     }
 }
@@ -22,7 +22,8 @@ public class MobTargetListener implements Listener {
         Entity entity = event.getEntity();
         
         // Check if this is an expedition mob
-        if (!plugin.getMobManager().isExpeditionMob(entity)) {
+        ExpeditionChest chest = plugin.getMobManager().getChestByMob(entity.getUniqueId());
+        if (chest == null) {
             return;
         }
 
@@ -33,18 +34,16 @@ public class MobTargetListener implements Listener {
         }
 
         // Make sure mob targets players near the chest
-        String chestId = plugin.getMobManager().getChestIdByMob(entity.getUniqueId());
-        if (chestId != null) {
-            ExpeditionChest chest = plugin.getDataManager().getExpeditionChest(chestId);
-            if (chest != null) {
-                Player target = (Player) event.getTarget();
-                double distance = target.getLocation().distance(chest.getLocation());
-                
-                // Only target if player is within teleport distance
-                if (distance > plugin.getConfigManager().getTeleportDistance()) {
-                    event.setCancelled(true);
-                }
-            }
+        Player target = (Player) event.getTarget();
+        if (target.getWorld() != chest.getLocation().getWorld()) {
+            event.setCancelled(true);
+            return;
+        }
+        double distance = target.getLocation().distance(chest.getLocation());
+        
+        // Only target players inside the leash, or the leash pulls the mob back mid-chase
+        if (distance > plugin.getConfigManager().getLeashDistance()) {
+            event.setCancelled(true);
         }
     }
 }
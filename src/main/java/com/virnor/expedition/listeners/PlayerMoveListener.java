@@ -1,12 +1,18 @@
 package com.virnor.expedition.listeners;
 
 import com.virnor.expedition.VirnorExpedition;
-import com.virnor.expedition.data.ExpeditionChest;
-import com.virnor.expedition.data.ExpeditionState;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.vehicle.VehicleMoveEvent;
 
 public class PlayerMoveListener implements Listener {
 
@@ -16,26 +22,55 @@ public class PlayerMoveListener implements Listener {
         this.plugin = plugin;
     }
 
-    @EventHandler
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onPlayerMove(PlayerMoveEvent event) {
         // Only check if player actually moved to a new block
-        if (event.getFrom().getBlockX() == event.getTo().getBlockX() &&
-            event.getFrom().getBlockY() == event.getTo().getBlockY() &&
-            event.getFrom().getBlockZ() == event.getTo().getBlockZ()) {
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        if (from.getBlockX() == to.getBlockX() &&
+            from.getBlockY() == to.getBlockY() &&
+            from.getBlockZ() == to.getBlockZ()) {
             return;
         }
 
-        Player player = event.getPlayer();
-        double spawnDistance = plugin.getConfigManager().getSpawnDistance();
+        plugin.getExpeditionManager().updatePlayerProximity(event.getPlayer(), to);
+    }
 
-        for (ExpeditionChest chest : plugin.getDataManager().getExpeditionChests().values()) {
-            if (chest.getState() != ExpeditionState.READY) continue;
-            if (!chest.getLocation().getWorld().equals(player.getWorld())) continue;
+    // PlayerMoveEvent is not fired for players riding a horse, boat or minecart
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onVehicleMove(VehicleMoveEvent event) {
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        if (from.getBlockX() == to.getBlockX() &&
+            from.getBlockY() == to.getBlockY() &&
+            from.getBlockZ() == to.getBlockZ()) {
+            return;
+        }
 
-            double distance = player.getLocation().distance(chest.getLocation());
-            if (distance <= spawnDistance) {
-                plugin.getExpeditionManager().activateChest(chest, player);
+        for (Entity passenger : event.getVehicle().getPassengers()) {
+            if (passenger instanceof Player player) {
+                plugin.getExpeditionManager().updatePlayerProximity(player, player.getLocation());
             }
         }
     }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        plugin.getExpeditionManager().updatePlayerProximity(event.getPlayer(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerRespawn(PlayerRespawnEvent event) {
+        plugin.getExpeditionManager().updatePlayerProximity(event.getPlayer(), event.getRespawnLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        plugin.getExpeditionManager().updatePlayerProximity(event.getPlayer(), event.getPlayer().getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        plugin.getExpeditionManager().removePlayerProximity(event.getPlayer());
+    }
 }
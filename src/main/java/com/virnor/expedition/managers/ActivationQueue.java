@@ -0,0 +1,101 @@
+package com.virnor.expedition.managers;
+
+import com.virnor.expedition.data.ExpeditionChest;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Spreads guardian spawning over several ticks. Activated chests wait here
+ * until their world has a free encounter slot, then get at most one guardian
+ * per tick while the spawns of all chests together stay within a per-tick budget.
+ * An encounter holds its slot from its first spawn until its guardians are gone.
+ */
+public class ActivationQueue {
+
+    private final IntSupplier spawnsPerTick;
+    private final IntSupplier maxActivePerWorld;
+    private final Predicate<ExpeditionChest> canSpawn;
+    private final Consumer<ExpeditionChest> spawnOne;
+    private final Consumer<ExpeditionChest> onSpawned;
+    // Chests with guardians still to spawn, oldest first
+    private final Set<ExpeditionChest> waiting;
+    // World name -> chests whose guardians are alive or being spawned
+    private final Map<String, Set<ExpeditionChest>> encounters;
+
+    public ActivationQueue(IntSupplier spawnsPerTick, IntSupplier maxActivePerWorld, Predicate<ExpeditionChest> canSpawn,
+                           Consumer<ExpeditionChest> spawnOne, Consumer<ExpeditionChest> onSpawned) {
+        this.spawnsPerTick = spawnsPerTick;
+        this.maxActivePerWorld = maxActivePerWorld;
+        this.canSpawn = canSpawn;
+        this.spawnOne = spawnOne;
+        this.onSpawned = onSpawned;
+        this.waiting = new LinkedHashSet<>();
+        this.encounters = new HashMap<>();
+    }
+
+    /**
+     * Queue a chest whose pending spawn count has been set
+     */
+    public void add(ExpeditionChest chest) {
+        waiting.add(chest);
+    }
+
+    /**
+     * Drop a chest from the queue and free its encounter slot
+     */
+    public void remove(ExpeditionChest chest) {
+        waiting.remove(chest);
+        Set<ExpeditionChest> active = encounters.get(worldOf(chest));
+        if (active != null) {
+            active.remove(chest);
+        }
+    }
+
+    public void tick() {
+        if (waiting.isEmpty()) return;
+
+        int budget = spawnsPerTick.getAsInt();
+        int maxActive = maxActivePerWorld.getAsInt();
+
+        Iterator<ExpeditionChest> iterator = waiting.iterator();
+        List<ExpeditionChest> spawned = new ArrayList<>();
+        while (budget > 0 && iterator.hasNext()) {
+            ExpeditionChest chest = iterator.next();
+
+            Set<ExpeditionChest> active = encounters.computeIfAbsent(worldOf(chest), name -> new HashSet<>());
+            if (!active.contains(chest)) {
+                if (maxActive > 0 && active.size() >= maxActive) continue;
+                active.add(chest);
+            }
+
+            // e.g. its chunk is unloaded or its spawn positions are still being worked out
+            if (!canSpawn.test(chest)) continue;
+
+            spawnOne.accept(chest);
+            chest.setPendingSpawns(chest.getPendingSpawns() - 1);
+            budget--;
+
+            if (chest.getPendingSpawns() <= 0) {
+                iterator.remove();
+                spawned.add(chest);
+            }
+        }
+
+        // Callbacks run after the loop so they may touch the queue
+        for (ExpeditionChest chest : spawned) {
+            onSpawned.accept(chest);
+        }
+    }
+
+    public void clear() {
+        waiting.clear();
+        encounters.clear();
+    }
+
+    private static String worldOf(ExpeditionChest chest) {
+        return chest.getLocation().getWorld().getName();
+    }
+}
@@ -0,0 +1,55 @@
+package com.virnor.expedition.managers;
+
+import com.virnor.expedition.data.ChestRegistry;
+import com.virnor.expedition.data.ExpeditionChest;
+
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Spreads per-chest work over a second instead of doing it all in one tick.
+ * Each tick visits the next 1/20th of the chest handles round-robin, so every
+ * chest is visited about once per second. When a tick runs over its time budget
+ * the rest of its share is carried over to the next tick.
+ */
+public class ChestTicker {
+
+    private static final int SLICES = 20;
+
+    private final Supplier<ChestRegistry> registry;
+    private final IntSupplier budgetMicros;
+    private final Consumer<ExpeditionChest> work;
+    private int cursor;
+    private int backlog;
+
+    public ChestTicker(Supplier<ChestRegistry> registry, IntSupplier budgetMicros, Consumer<ExpeditionChest> work) {
+        this.registry = registry;
+        this.budgetMicros = budgetMicros;
+        this.work = work;
+    }
+
+    public void tick() {
+        ChestRegistry chests = registry.get();
+        int capacity = chests.capacity();
+        if (capacity == 0) return;
+
+        int quota = Math.min((capacity + SLICES - 1) / SLICES + backlog, capacity);
+        long budget = budgetMicros.getAsInt() * 1000L;
+        long start = System.nanoTime();
+
+        int visited = 0;
+        while (visited < quota) {
+            if (cursor >= capacity) {
+                cursor = 0;
+            }
+            ExpeditionChest chest = chests.get(cursor++);
+            visited++;
+            if (chest != null) {
+                work.accept(chest);
+                if (budget > 0 && System.nanoTime() - start > budget) break;
+            }
+        }
+        backlog = quota - visited;
+    }
+}
@@ -5,13 +5,16 @@ import com.virnor.expedition.config.ConfigManager;
 import com.virnor.expedition.data.ExpeditionChest;
 import com.virnor.expedition.utils.ColorUtils;
 import org.bukkit.Bukkit;
-import org.bukkit.Location;
 import org.bukkit.attribute.Attribute;
 import org.bukkit.entity.ArmorStand;
+import org.bukkit.entity.Display;
 import org.bukkit.entity.Entity;
-import org.bukkit.entity.EntityType;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
+import org.bukkit.entity.TextDisplay;
+import org.bukkit.util.Transformation;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -23,31 +26,50 @@ public class DamageTracker {
 
     private final VirnorExpedition plugin;
     
-    // ChestID -> (PlayerUUID -> TotalDamage)
-    private final Map<String, Map<UUID, Double>> chestDamageMap;
+    // Chest handle -> (PlayerUUID -> TotalDamage)
+    private final List<Map<UUID, Double>> chestDamageMap;
     
-    // MobUUID -> HealthBar ArmorStand UUID
-    private final Map<UUID, UUID> mobHealthBarMap;
+    // MobUUID -> HealthBar passenger
+    private final Map<UUID, HealthBar> mobHealthBarMap;
+    
+    // Mobs whose health changed since the last flush
+    private final Map<UUID, LivingEntity> dirtyHealthBars;
 
     public DamageTracker(VirnorExpedition plugin) {
         this.plugin = plugin;
-        this.chestDamageMap = new ConcurrentHashMap<>();
+        this.chestDamageMap = new ArrayList<>();
         this.mobHealthBarMap = new ConcurrentHashMap<>();
+        this.dirtyHealthBars = new LinkedHashMap<>();
     }
 
     /**
      * Record damage dealt by a player to an expedition mob
      */
-    public void recordDamage(String chestId, UUID playerUUID, double damage) {
-        chestDamageMap.computeIfAbsent(chestId, k -> new ConcurrentHashMap<>())
-                      .merge(playerUUID, damage, Double::sum);
+    public void recordDamage(ExpeditionChest chest, UUID playerUUID, double damage) {
+        int handle = chest.getHandle();
+        if (handle < 0) return;
+        
+        while (chestDamageMap.size() <= handle) {
+            chestDamageMap.add(null);
+        }
+        Map<UUID, Double> damages = chestDamageMap.get(handle);
+        if (damages == null) {
+            damages = new ConcurrentHashMap<>();
+            chestDamageMap.set(handle, damages);
+        }
+        damages.merge(playerUUID, damage, Double::sum);
+    }
+
+    private Map<UUID, Double> getDamages(ExpeditionChest chest) {
+        int handle = chest.getHandle();
+        return handle >= 0 && handle < chestDamageMap.size() ? chestDamageMap.get(handle) : null;
     }
 
     /**
      * Get total damage dealt by a player to mobs of a chest
      */
-    public double getPlayerDamage(String chestId, UUID playerUUID) {
-        Map<UUID, Double> damages = chestDamageMap.get(chestId);
+    public double getPlayerDamage(ExpeditionChest chest, UUID playerUUID) {
+        Map<UUID, Double> damages = getDamages(chest);
         if (damages == null) return 0.0;
         return damages.getOrDefault(playerUUID, 0.0);
     }
@@ -55,8 +77,8 @@ public class DamageTracker {
     /**
      * Get the player who dealt the most damage to a chest's mobs
      */
-    public UUID getTopDamagePlayer(String chestId) {
-        Map<UUID, Double> damages = chestDamageMap.get(chestId);
+    public UUID getTopDamagePlayer(ExpeditionChest chest) {
+        Map<UUID, Double> damages = getDamages(chest);
         if (damages == null || damages.isEmpty()) return null;
         
         return damages.entrySet().stream()
@@ -68,8 +90,8 @@ public class DamageTracker {
     /**
      * Get total damage dealt by top player
      */
-    public double getTopDamageAmount(String chestId) {
-        Map<UUID, Double> damages = chestDamageMap.get(chestId);
+    public double getTopDamageAmount(ExpeditionChest chest) {
+        Map<UUID, Double> damages = getDamages(chest);
         if (damages == null || damages.isEmpty()) return 0.0;
         
         return damages.values().stream()
@@ -80,15 +102,16 @@ public class DamageTracker {
     /**
      * Get all damage stats for a chest
      */
-    public Map<UUID, Double> getAllDamages(String chestId) {
-        return chestDamageMap.getOrDefault(chestId, new HashMap<>());
+    public Map<UUID, Double> getAllDamages(ExpeditionChest chest) {
+        Map<UUID, Double> damages = getDamages(chest);
+        return damages != null ? damages : new HashMap<>();
     }
 
     /**
      * Get sorted damage leaderboard
      */
-    public List<Map.Entry<UUID, Double>> getDamageLeaderboard(String chestId) {
-        Map<UUID, Double> damages = chestDamageMap.get(chestId);
+    public List<Map.Entry<UUID, Double>> getDamageLeaderboard(ExpeditionChest chest) {
+        Map<UUID, Double> damages = getDamages(chest);
         if (damages == null || damages.isEmpty()) return new ArrayList<>();
         
         List<Map.Entry<UUID, Double>> sorted = new ArrayList<>(damages.entrySet());
@@ -99,15 +122,18 @@ public class DamageTracker {
     /**
      * Clear damage data for a chest
      */
-    public void clearChestDamage(String chestId) {
-        chestDamageMap.remove(chestId);
+    public void clearChestDamage(ExpeditionChest chest) {
+        int handle = chest.getHandle();
+        if (handle >= 0 && handle < chestDamageMap.size()) {
+            chestDamageMap.set(handle, null);
+        }
     }
 
     /**
      * Determine the loot winner based on config settings
      * Returns the last hitter if mode is LAST_HIT, or top damage dealer if MOST_DAMAGE
      */
-    public Player determineLootWinner(String chestId, Player lastHitter) {
+    public Player determineLootWinner(ExpeditionChest chest, Player lastHitter) {
         ConfigManager config = plugin.getConfigManager();
         
         if (config.isLastHitMode() || lastHitter == null) {
@@ -115,7 +141,7 @@ public class DamageTracker {
         }
         
         // MOST_DAMAGE mode
-        UUID topDamagePlayerUUID = getTopDamagePlayer(chestId);
+        UUID topDamagePlayerUUID = getTopDamagePlayer(chest);
         if (topDamagePlayerUUID == null) {
             return lastHitter;
         }
@@ -127,13 +153,13 @@ public class DamageTracker {
     /**
      * Announce damage results to all players who participated
      */
-    public void announceDamageResults(String chestId, Player winner) {
+    public void announceDamageResults(ExpeditionChest chest, Player winner) {
         ConfigManager config = plugin.getConfigManager();
-        Map<UUID, Double> damages = chestDamageMap.get(chestId);
+        Map<UUID, Double> damages = getDamages(chest);
         
         if (damages == null || damages.isEmpty()) return;
         
-        double topDamage = getTopDamageAmount(chestId);
+        double topDamage = getTopDamageAmount(chest);
         String winnerName = winner != null ? winner.getName() : "Bilinmiyor";
         
         for (Map.Entry<UUID, Double> entry : damages.entrySet()) {
@@ -164,121 +190,100 @@ public class DamageTracker {
     // ==================== HEALTH BAR HOLOGRAM METHODS ====================
 
     /**
-     * Create health bar hologram for a mob
+     * Create health bar hologram for a mob. The bar rides the mob as a passenger,
+     * so the client keeps it above the mob's head without any teleports.
      */
     public void createHealthBar(LivingEntity mob) {
         ConfigManager config = plugin.getConfigManager();
         if (!config.isShowHealthBar()) return;
         
-        Location loc = getHealthBarLocation(mob);
-        
-        ArmorStand healthBar = (ArmorStand) mob.getWorld().spawnEntity(loc, EntityType.ARMOR_STAND);
-        healthBar.setVisible(false);
-        healthBar.setCustomNameVisible(true);
-        healthBar.setGravity(false);
-        healthBar.setSmall(true);
-        healthBar.setMarker(true);
-        healthBar.setInvulnerable(true);
+        Entity healthBar;
+        if (config.isHologramTextDisplay()) {
+            // Passengers sit on top of the mob; the translation adds the configured offset
+            float offset = (float) config.getHealthBarHeightOffset();
+            healthBar = mob.getWorld().spawn(mob.getLocation(), TextDisplay.class, display -> {
+                display.setBillboard(Display.Billboard.CENTER);
+                display.setDefaultBackground(false);
+                display.setShadowed(true);
+                display.setTransformation(new Transformation(
+                    new Vector3f(0, offset, 0), new Quaternionf(), new Vector3f(1, 1, 1), new Quaternionf()));
+                display.setPersistent(false);
+            });
+        } else {
+            healthBar = mob.getWorld().spawn(mob.getLocation(), ArmorStand.class, stand -> {
+                stand.setVisible(false);
+                stand.setCustomNameVisible(true);
+                stand.setGravity(false);
+                stand.setSmall(true);
+                stand.setMarker(true);
+                stand.setInvulnerable(true);
+                stand.setPersistent(false);
+            });
+        }
+        mob.addPassenger(healthBar);
         
-        // Set initial health bar
-        updateHealthBarDisplay(healthBar, mob);
+        HealthBar bar = new HealthBar(healthBar);
+        updateHealthBarDisplay(bar, mob);
+        mobHealthBarMap.put(mob.getUniqueId(), bar);
         
-        mobHealthBarMap.put(mob.getUniqueId(), healthBar.getUniqueId());
+        ExpeditionChest chest = plugin.getMobManager().getChestByMob(mob.getUniqueId());
+        if (chest != null) {
+            plugin.getEntityTags().tagDisplay(healthBar, chest);
+            plugin.getVisibilityManager().attach(chest, healthBar);
+        }
     }
 
     /**
-     * Update health bar display for a mob
+     * Update health bar display for a mob. Only the text is touched, and only when the health
+     * or max health changed.
      */
     public void updateHealthBar(LivingEntity mob) {
         ConfigManager config = plugin.getConfigManager();
         if (!config.isShowHealthBar()) return;
         
-        UUID healthBarUUID = mobHealthBarMap.get(mob.getUniqueId());
-        if (healthBarUUID == null) {
+        HealthBar bar = mobHealthBarMap.get(mob.getUniqueId());
+        if (bar == null) {
             createHealthBar(mob);
             return;
         }
         
-        Entity entity = Bukkit.getEntity(healthBarUUID);
-        if (entity == null || entity.isDead()) {
+        if (!bar.entity.isValid()) {
             mobHealthBarMap.remove(mob.getUniqueId());
             createHealthBar(mob);
             return;
         }
         
-        ArmorStand healthBar = (ArmorStand) entity;
-        
-        // Update position
-        healthBar.teleport(getHealthBarLocation(mob));
-        
-        // Update display
-        updateHealthBarDisplay(healthBar, mob);
+        if (mob.getHealth() != bar.shownHealth
+                || mob.getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue() != bar.shownMaxHealth) {
+            updateHealthBarDisplay(bar, mob);
+        }
     }
 
     /**
      * Update the visual display of a health bar
      */
-    private void updateHealthBarDisplay(ArmorStand healthBar, LivingEntity mob) {
-        ConfigManager config = plugin.getConfigManager();
-        
+    private void updateHealthBarDisplay(HealthBar bar, LivingEntity mob) {
         double maxHealth = mob.getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue();
         double currentHealth = mob.getHealth();
-        double healthPercent = currentHealth / maxHealth;
-        
-        int totalBars = config.getHealthBarTotalBars();
-        int filledBars = (int) Math.ceil(healthPercent * totalBars);
-        int emptyBars = totalBars - filledBars;
         
-        String symbol = config.getHealthBarSymbol();
-        StringBuilder healthBarText = new StringBuilder();
-        
-        // Determine color based on health percentage
-        String color;
-        if (healthPercent > 0.5) {
-            color = config.getHealthBarHighColor();
-        } else if (healthPercent > 0.25) {
-            color = config.getHealthBarMediumColor();
+        String text = plugin.getConfigManager().getHealthBarGlyphs().format(currentHealth, maxHealth);
+        if (bar.entity instanceof TextDisplay display) {
+            display.setText(text);
         } else {
-            color = config.getHealthBarLowColor();
-        }
-        
-        // Build health bar string
-        healthBarText.append(color);
-        for (int i = 0; i < filledBars; i++) {
-            healthBarText.append(symbol);
+            bar.entity.setCustomName(text);
         }
-        
-        healthBarText.append(config.getHealthBarBackgroundColor());
-        for (int i = 0; i < emptyBars; i++) {
-            healthBarText.append(symbol);
-        }
-        
-        // Add health numbers
-        healthBarText.append(" &f").append((int) currentHealth).append("&7/&f").append((int) maxHealth);
-        
-        healthBar.setCustomName(ColorUtils.colorize(healthBarText.toString()));
-    }
-
-    /**
-     * Get location for health bar above mob's head
-     */
-    private Location getHealthBarLocation(LivingEntity mob) {
-        ConfigManager config = plugin.getConfigManager();
-        Location loc = mob.getLocation().clone();
-        loc.add(0, mob.getHeight() + config.getHealthBarHeightOffset(), 0);
-        return loc;
+        bar.shownHealth = currentHealth;
+        bar.shownMaxHealth = maxHealth;
     }
 
     /**
      * Remove health bar for a mob
      */
     public void removeHealthBar(UUID mobUUID) {
-        UUID healthBarUUID = mobHealthBarMap.remove(mobUUID);
-        if (healthBarUUID != null) {
-            Entity entity = Bukkit.getEntity(healthBarUUID);
-            if (entity != null) {
-                entity.remove();
-            }
+        dirtyHealthBars.remove(mobUUID);
+        HealthBar bar = mobHealthBarMap.remove(mobUUID);
+        if (bar != null && bar.entity.isValid()) {
+            bar.entity.remove();
         }
     }
 
@@ -292,32 +297,65 @@ public class DamageTracker {
     }
 
     /**
-     * Update all health bars (called periodically)
+     * Get the health bar entities of a chest's mobs
      */
-    public void updateAllHealthBars() {
-        for (Map.Entry<UUID, UUID> entry : new HashMap<>(mobHealthBarMap).entrySet()) {
-            UUID mobUUID = entry.getKey();
-            Entity mobEntity = Bukkit.getEntity(mobUUID);
-            
-            if (mobEntity == null || mobEntity.isDead() || !(mobEntity instanceof LivingEntity)) {
-                removeHealthBar(mobUUID);
-                continue;
+    public List<Entity> getHealthBars(ExpeditionChest chest) {
+        List<Entity> healthBars = new ArrayList<>();
+        for (UUID mobUUID : chest.getMobUUIDs()) {
+            HealthBar bar = mobHealthBarMap.get(mobUUID);
+            if (bar != null && bar.entity.isValid()) {
+                healthBars.add(bar.entity);
             }
-            
-            updateHealthBar((LivingEntity) mobEntity);
         }
+        return healthBars;
+    }
+
+    /**
+     * Queue a mob's health bar for redraw. Any number of calls in a tick lead to one redraw.
+     */
+    public void markHealthDirty(LivingEntity mob) {
+        if (mobHealthBarMap.containsKey(mob.getUniqueId())) {
+            dirtyHealthBars.put(mob.getUniqueId(), mob);
+        }
+    }
+
+    /**
+     * Redraw the health bars of mobs whose health changed (called once per tick)
+     */
+    public void flushHealthBars() {
+        if (dirtyHealthBars.isEmpty()) return;
+        
+        for (LivingEntity mob : dirtyHealthBars.values()) {
+            if (!mob.isDead()) {
+                updateHealthBar(mob);
+            }
+        }
+        dirtyHealthBars.clear();
     }
 
     /**
      * Clean up all health bars
      */
     public void removeAllHealthBars() {
-        for (UUID healthBarUUID : mobHealthBarMap.values()) {
-            Entity entity = Bukkit.getEntity(healthBarUUID);
-            if (entity != null) {
-                entity.remove();
+        for (HealthBar bar : mobHealthBarMap.values()) {
+            if (bar.entity.isValid()) {
+                bar.entity.remove();
             }
         }
         mobHealthBarMap.clear();
+        dirtyHealthBars.clear();
+    }
+
+    /**
+     * A health bar entity and the health and max health it currently shows
+     */
+    private static class HealthBar {
+        private final Entity entity;
+        private double shownHealth;
+        private double shownMaxHealth;
+
+        private HealthBar(Entity entity) {
+            this.entity = entity;
+        }
     }
 }
@@ -0,0 +1,169 @@
+package com.virnor.expedition.managers;
+
+import com.virnor.expedition.VirnorExpedition;
+import com.virnor.expedition.config.ConfigManager;
+import com.virnor.expedition.data.ExpeditionChest;
+import com.virnor.expedition.data.ExpeditionState;
+import org.bukkit.Bukkit;
+import org.bukkit.GameMode;
+import org.bukkit.Location;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Mob;
+import org.bukkit.entity.Player;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Watches ACTIVE chests for players within the teleport distance. Once nobody
+ * has been near a fight for a while its guardians stop running their AI; after
+ * a longer while the fight is abandoned and the chest reset. Only idle chests
+ * are looked at, once per second.
+ */
+public class EngagementTracker {
+
+    private static final long CHECK_INTERVAL_MS = 1000;
+
+    private final VirnorExpedition plugin;
+    private final ProximityTracker proximity;
+    private final Consumer<ExpeditionChest> onAbandoned;
+    // Chest -> when the last player left, for ACTIVE chests nobody is near
+    private final Map<ExpeditionChest, Long> idleSince;
+    // Idle chests whose guardians have been made unaware
+    private final Set<ExpeditionChest> throttled;
+    private long nextCheck;
+
+    public EngagementTracker(VirnorExpedition plugin, Consumer<ExpeditionChest> onAbandoned) {
+        this.plugin = plugin;
+        this.onAbandoned = onAbandoned;
+        this.idleSince = new HashMap<>();
+        this.throttled = new HashSet<>();
+        this.proximity = new ProximityTracker(plugin,
+            () -> plugin.getConfigManager().getTeleportDistance(),
+            new ProximityTracker.Callback() {
+                @Override
+                public void onEnter(Player player, ExpeditionChest chest) {
+                    if (isEligible(player)) {
+                        engage(chest);
+                    }
+                }
+
+                @Override
+                public void onLeave(Player player, ExpeditionChest chest) {
+                    if (chest.getState() == ExpeditionState.ACTIVE && !hasEligiblePlayer(chest)) {
+                        idleSince.putIfAbsent(chest, System.currentTimeMillis());
+                    }
+                }
+            });
+    }
+
+    public void update(Player player, Location location) {
+        proximity.update(player, location);
+    }
+
+    public void remove(Player player) {
+        proximity.remove(player);
+    }
+
+    public void forget(ExpeditionChest chest) {
+        proximity.forget(chest);
+        idleSince.remove(chest);
+        throttled.remove(chest);
+    }
+
+    /**
+     * Start watching a chest that just became ACTIVE
+     */
+    public void onActivated(ExpeditionChest chest) {
+        if (hasEligiblePlayer(chest)) {
+            engage(chest);
+        } else {
+            idleSince.put(chest, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Whether a chest's guardians are currently unaware because nobody is fighting them
+     */
+    public boolean isThrottled(ExpeditionChest chest) {
+        return throttled.contains(chest);
+    }
+
+    public void tick() {
+        if (idleSince.isEmpty()) return;
+
+        long now = System.currentTimeMillis();
+        if (now < nextCheck) return;
+        nextCheck = now + CHECK_INTERVAL_MS;
+
+        ConfigManager config = plugin.getConfigManager();
+        long awareTimeout = config.getIdleAwareTimeout() * 1000L;
+        long resetTimeout = config.getIdleResetTimeout() * 1000L;
+
+        List<ExpeditionChest> abandoned = new ArrayList<>();
+        Iterator<Map.Entry<ExpeditionChest, Long>> iterator = idleSince.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<ExpeditionChest, Long> entry = iterator.next();
+            ExpeditionChest chest = entry.getKey();
+
+            // The fight ended some other way
+            if (chest.getState() != ExpeditionState.ACTIVE) {
+                iterator.remove();
+                throttled.remove(chest);
+                continue;
+            }
+
+            long idle = now - entry.getValue();
+            if (resetTimeout > 0 && idle >= resetTimeout) {
+                iterator.remove();
+                throttled.remove(chest);
+                abandoned.add(chest);
+            } else if (idle >= awareTimeout && throttled.add(chest)) {
+                setAware(chest, false);
+            }
+        }
+
+        // Resetting a chest removes its guardians, so it runs after the loop
+        for (ExpeditionChest chest : abandoned) {
+            onAbandoned.accept(chest);
+        }
+    }
+
+    public void clear() {
+        proximity.clear();
+        idleSince.clear();
+        throttled.clear();
+    }
+
+    private void engage(ExpeditionChest chest) {
+        idleSince.remove(chest);
+        if (throttled.remove(chest)) {
+            setAware(chest, true);
+        }
+    }
+
+    private void setAware(ExpeditionChest chest, boolean aware) {
+        TrackedEntities<LivingEntity> guardians = plugin.getMobManager().getGuardians();
+        for (UUID mobUUID : chest.getMobUUIDs()) {
+            // Unloaded guardians pick the state up when they come back
+            if (guardians.get(mobUUID) instanceof Mob mob) {
+                mob.setAware(aware);
+            }
+        }
+    }
+
+    private boolean hasEligiblePlayer(ExpeditionChest chest) {
+        for (UUID uuid : proximity.getPlayersNear(chest)) {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player != null && isEligible(player)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Spectators can't fight, so they don't keep a fight going
+    private static boolean isEligible(Player player) {
+        return player.getGameMode() != GameMode.SPECTATOR;
+    }
+}
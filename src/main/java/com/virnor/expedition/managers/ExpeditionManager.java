@@ -6,8 +6,10 @@ import com.virnor.expedition.data.ExpeditionChest;
 import com.virnor.expedition.data.ExpeditionState;
 import com.virnor.expedition.utils.ColorUtils;
 import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitTask;
@@ -17,44 +19,86 @@ import java.util.*;
 public class ExpeditionManager {
 
     private final VirnorExpedition plugin;
-    private final Set<UUID> playersNearChests;
+    private final ProximityTracker activationTracker;
+    private final ProximityTracker dormancyTracker;
+    private final EngagementTracker engagementTracker;
+    private final ExpirationScheduler expirationScheduler;
+    private final ChestTicker chestTicker;
     private BukkitTask mainTask;
-    private BukkitTask healthBarTask;
 
     public ExpeditionManager(VirnorExpedition plugin) {
         this.plugin = plugin;
-        this.playersNearChests = new HashSet<>();
+        this.activationTracker = new ProximityTracker(plugin,
+            () -> plugin.getConfigManager().getSpawnDistance(),
+            new ProximityTracker.Callback() {
+                @Override
+                public void onEnter(Player player, ExpeditionChest chest) {
+                    activateChest(chest, player);
+                }
+
+                @Override
+                public void onLeave(Player player, ExpeditionChest chest) {
+                }
+            });
+        // Never smaller than the distances chests and their mobs react to
+        this.dormancyTracker = new ProximityTracker(plugin,
+            () -> {
+                ConfigManager config = plugin.getConfigManager();
+                return Math.max(config.getActiveRadius(), Math.max(config.getSpawnDistance(), config.getTeleportDistance()));
+            },
+            new ProximityTracker.Callback() {
+                @Override
+                public void onEnter(Player player, ExpeditionChest chest) {
+                    if (chest.isDormant()) {
+                        wakeIfLoaded(chest);
+                    }
+                }
+
+                @Override
+                public void onLeave(Player player, ExpeditionChest chest) {
+                    if (dormancyTracker.getPlayersNear(chest).isEmpty()) {
+                        chest.setDormant(true);
+                    }
+                }
+            });
+        this.engagementTracker = new EngagementTracker(plugin, this::abandonEncounter);
+        this.expirationScheduler = new ExpirationScheduler();
+        this.chestTicker = new ChestTicker(
+            () -> plugin.getDataManager().getRegistry(),
+            () -> plugin.getConfigManager().getTickBudget(),
+            this::tickChest);
     }
 
     public void startTasks() {
-        mainTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-            checkPlayerDistances();
-            checkOwnershipExpirations();
-            checkCooldownExpirations();
-            plugin.getMobManager().checkMobDistances();
-            updateHolograms();
-        }, 20L, 20L);
+        // Players already online (e.g. after a reload) need an initial position
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            updatePlayerProximity(player, player.getLocation());
+        }
         
-        // Health bar update task - runs every 5 ticks for smoother updates
-        healthBarTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-            plugin.getDamageTracker().updateAllHealthBars();
-        }, 5L, 5L);
+        // Per-chest work is spread over 20 ticks instead of running all at once every second
+        mainTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+            processExpirations();
+            chestTicker.tick();
+            plugin.getMobManager().tickSpawns();
+            engagementTracker.tick();
+            plugin.getDamageTracker().flushHealthBars();
+        }, 1L, 1L);
     }
 
     public void stopTasks() {
         if (mainTask != null) {
             mainTask.cancel();
         }
-        if (healthBarTask != null) {
-            healthBarTask.cancel();
-        }
     }
 
     public boolean createExpeditionChest(Location location) {
+        // Ids of chests in unloaded worlds are still being read, or couldn't be
+        String id = plugin.getDataManager().generateChestId();
+        if (id == null) return false;
+        
         Block block = location.getBlock();
         block.setType(Material.CHEST);
         
-        String id = plugin.getDataManager().generateChestId();
         ExpeditionChest chest = new ExpeditionChest(id, location);
         plugin.getDataManager().addExpeditionChest(chest);
         
@@ -63,6 +107,9 @@ public class ExpeditionManager {
             config.getHologramTitle(), 
             config.getHologramStatusReady());
         
+        // Players already standing nearby won't move to pick the new chest up
+        refreshProximity(location.getWorld());
+        
         return true;
     }
 
@@ -74,33 +121,114 @@ public class ExpeditionManager {
         plugin.getHologramManager().removeHologram(chest);
         chest.getLocation().getBlock().setType(Material.AIR);
         plugin.getDataManager().removeExpeditionChest(id);
+        activationTracker.forget(chest);
+        dormancyTracker.forget(chest);
+        engagementTracker.forget(chest);
+        plugin.getVisibilityManager().forget(chest);
+        chest.setDormant(true);
+        expirationScheduler.cancel(chest);
         
         return true;
     }
 
+    /**
+     * Drop the entities and tracking of a chest whose world is being unloaded.
+     * The chest itself stays in storage.
+     */
+    public void unloadChest(ExpeditionChest chest) {
+        plugin.getMobManager().removeMobsForChest(chest);
+        plugin.getHologramManager().removeHologram(chest);
+        activationTracker.forget(chest);
+        dormancyTracker.forget(chest);
+        engagementTracker.forget(chest);
+        plugin.getVisibilityManager().forget(chest);
+        chest.setDormant(true);
+        expirationScheduler.cancel(chest);
+    }
+
     public boolean removeExpeditionChestByLocation(Location location) {
         ExpeditionChest chest = plugin.getDataManager().getChestByLocation(location);
         if (chest == null) return false;
         return removeExpeditionChest(chest.getId());
     }
 
-    private void checkPlayerDistances() {
-        ConfigManager config = plugin.getConfigManager();
-        double spawnDistance = config.getSpawnDistance();
-        
-        for (ExpeditionChest chest : plugin.getDataManager().getExpeditionChests().values()) {
-            if (chest.getState() != ExpeditionState.READY) continue;
-            
-            Location chestLoc = chest.getLocation();
-            if (chestLoc.getWorld() == null) continue;
-            
-            for (Player player : chestLoc.getWorld().getPlayers()) {
-                double distance = player.getLocation().distance(chestLoc);
-                
-                if (distance <= spawnDistance) {
-                    activateChest(chest, player);
-                    break;
-                }
+    /**
+     * Update proximity tracking for a player that changed block, chunk or world
+     */
+    public void updatePlayerProximity(Player player, Location location) {
+        activationTracker.update(player, location);
+        dormancyTracker.update(player, location);
+        engagementTracker.update(player, location);
+        plugin.getVisibilityManager().update(player, location);
+    }
+
+    /**
+     * Re-check every player in a world, e.g. after chests were added to it
+     */
+    public void refreshProximity(World world) {
+        for (Player player : world.getPlayers()) {
+            updatePlayerProximity(player, player.getLocation());
+        }
+    }
+
+    public void removePlayerProximity(Player player) {
+        activationTracker.remove(player);
+        dormancyTracker.remove(player);
+        engagementTracker.remove(player);
+        plugin.getVisibilityManager().remove(player);
+    }
+
+    /**
+     * Wake a dormant chest once its chunk is loaded and bring its hologram up to date
+     */
+    private void wakeIfLoaded(ExpeditionChest chest) {
+        Location loc = chest.getLocation();
+        if (!loc.getWorld().isChunkLoaded(loc.getBlockX() >> 4, loc.getBlockZ() >> 4)) return;
+        
+        chest.setDormant(false);
+        plugin.getHologramManager().refreshHologram(chest);
+    }
+
+    /**
+     * Wake chests in a chunk that just loaded if a player is already near them
+     */
+    public void onChunkLoad(Chunk chunk) {
+        for (ExpeditionChest chest : plugin.getDataManager().getSpatialIndex().getInChunk(chunk.getWorld(), chunk.getX(), chunk.getZ())) {
+            if (chest.isDormant() && !dormancyTracker.getPlayersNear(chest).isEmpty()) {
+                wakeIfLoaded(chest);
+            }
+        }
+    }
+
+    public void onChunkUnload(Chunk chunk) {
+        for (ExpeditionChest chest : plugin.getDataManager().getSpatialIndex().getInChunk(chunk.getWorld(), chunk.getX(), chunk.getZ())) {
+            chest.setDormant(true);
+        }
+    }
+
+    /**
+     * Periodic work for one chest, run about once per second by the ChestTicker.
+     * Dormant chests are skipped; they catch up when they wake.
+     */
+    private void tickChest(ExpeditionChest chest) {
+        if (chest.isDormant()) return;
+        
+        checkOccupied(chest);
+        updateHologram(chest);
+    }
+
+    /**
+     * Activate a READY chest that already has a player standing in range,
+     * e.g. when a cooldown ran out while the player was waiting next to it.
+     */
+    private void checkOccupied(ExpeditionChest chest) {
+        if (chest.getState() != ExpeditionState.READY) return;
+        
+        for (UUID uuid : activationTracker.getPlayersNear(chest)) {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player != null && player.isOnline()) {
+                activateChest(chest, player);
+                break;
             }
         }
     }
@@ -111,21 +239,40 @@ public class ExpeditionManager {
         ConfigManager config = plugin.getConfigManager();
         
         chest.setState(ExpeditionState.ACTIVE);
+        plugin.getDataManager().markDirty(chest);
         plugin.getMobManager().spawnMobsForChest(chest);
+        engagementTracker.onActivated(chest);
         
         plugin.getHologramManager().updateHologram(chest, 
             config.getHologramTitle(), 
-            config.getHologramStatusFighting());
+            config.getHologramStatusSpawning());
         
         triggerPlayer.sendMessage(ColorUtils.colorize(config.getMsgPrefix() + config.getMsgMobsSpawned()));
     }
 
+    /**
+     * Reset a fight nobody has come near for the idle reset timeout, so its
+     * guardians stop costing tick time
+     */
+    private void abandonEncounter(ExpeditionChest chest) {
+        plugin.getMobManager().removeMobsForChest(chest);
+        chest.setState(ExpeditionState.READY);
+        plugin.getDataManager().markDirty(chest);
+        
+        if (!chest.isDormant()) {
+            plugin.getHologramManager().refreshHologram(chest);
+        }
+    }
+
     public void onAllMobsKilled(ExpeditionChest chest, Player killer) {
         ConfigManager config = plugin.getConfigManager();
         
         chest.setState(ExpeditionState.CONQUERED);
         chest.setOwnerUUID(killer.getUniqueId());
+        chest.setOwnerName(killer.getName());
         chest.setOwnershipExpireTime(System.currentTimeMillis() + (config.getOwnershipDuration() * 1000L));
+        scheduleExpiration(chest);
+        plugin.getDataManager().markDirty(chest);
         
         plugin.getHologramManager().updateHologram(chest, 
             config.getHologramTitle(),
@@ -141,6 +288,7 @@ public class ExpeditionManager {
         chest.setState(ExpeditionState.COOLDOWN);
         chest.setCooldownExpireTime(System.currentTimeMillis() + (config.getCooldownDuration() * 1000L));
         chest.setOwnerUUID(null);
+        scheduleExpiration(chest);
         
         plugin.getHologramManager().updateHologram(chest, 
             config.getHologramTitle(),
@@ -148,79 +296,92 @@ public class ExpeditionManager {
         
         player.sendMessage(ColorUtils.colorize(config.getMsgPrefix() + config.getMsgLootReceived()));
         
-        plugin.getDataManager().saveData();
+        plugin.getDataManager().markDirty(chest);
     }
 
-    private void checkOwnershipExpirations() {
-        ConfigManager config = plugin.getConfigManager();
+    /**
+     * Schedule (or cancel) the pending expiry of a chest based on its current state.
+     * Must be called whenever a chest enters or leaves CONQUERED or COOLDOWN.
+     */
+    public void scheduleExpiration(ExpeditionChest chest) {
+        switch (chest.getState()) {
+            case CONQUERED -> expirationScheduler.schedule(chest, ExpirationScheduler.Type.OWNERSHIP, chest.getOwnershipExpireTime());
+            case COOLDOWN -> expirationScheduler.schedule(chest, ExpirationScheduler.Type.COOLDOWN, chest.getCooldownExpireTime());
+            default -> expirationScheduler.cancel(chest);
+        }
+    }
+
+    private void processExpirations() {
+        expirationScheduler.poll(System.currentTimeMillis(), (chest, type) -> {
+            switch (type) {
+                case OWNERSHIP -> onOwnershipExpired(chest);
+                case COOLDOWN -> onCooldownExpired(chest);
+            }
+        });
+    }
+
+    private void onOwnershipExpired(ExpeditionChest chest) {
+        if (chest.getState() != ExpeditionState.CONQUERED) return;
         
-        for (ExpeditionChest chest : plugin.getDataManager().getExpeditionChests().values()) {
-            if (chest.getState() == ExpeditionState.CONQUERED && chest.isOwnershipExpired()) {
-                UUID ownerUUID = chest.getOwnerUUID();
-                if (ownerUUID != null) {
-                    Player owner = Bukkit.getPlayer(ownerUUID);
-                    if (owner != null && owner.isOnline()) {
-                        owner.sendMessage(ColorUtils.colorize(config.getMsgPrefix() + config.getMsgOwnershipExpired()));
-                    }
-                }
-                
-                chest.setState(ExpeditionState.READY);
-                chest.setOwnerUUID(null);
-                
-                plugin.getHologramManager().updateHologram(chest, 
-                    config.getHologramTitle(), 
-                    config.getHologramStatusReady());
+        ConfigManager config = plugin.getConfigManager();
+        UUID ownerUUID = chest.getOwnerUUID();
+        if (ownerUUID != null) {
+            Player owner = Bukkit.getPlayer(ownerUUID);
+            if (owner != null && owner.isOnline()) {
+                owner.sendMessage(ColorUtils.colorize(config.getMsgPrefix() + config.getMsgOwnershipExpired()));
             }
         }
+        
+        chest.setState(ExpeditionState.READY);
+        chest.setOwnerUUID(null);
+        plugin.getDataManager().markDirty(chest);
+        
+        if (!chest.isDormant()) {
+            plugin.getHologramManager().updateHologram(chest, 
+                config.getHologramTitle(), 
+                config.getHologramStatusReady());
+        }
     }
 
-    private void checkCooldownExpirations() {
+    private void onCooldownExpired(ExpeditionChest chest) {
+        if (chest.getState() != ExpeditionState.COOLDOWN) return;
+        
         ConfigManager config = plugin.getConfigManager();
+        chest.setState(ExpeditionState.READY);
+        plugin.getDataManager().markDirty(chest);
         
-        for (ExpeditionChest chest : plugin.getDataManager().getExpeditionChests().values()) {
-            if (chest.getState() == ExpeditionState.COOLDOWN && chest.isCooldownExpired()) {
-                chest.setState(ExpeditionState.READY);
-                
-                plugin.getHologramManager().updateHologram(chest, 
-                    config.getHologramTitle(), 
-                    config.getHologramStatusReady());
-            }
+        if (!chest.isDormant()) {
+            plugin.getHologramManager().updateHologram(chest, 
+                config.getHologramTitle(), 
+                config.getHologramStatusReady());
         }
     }
 
-    private void updateHolograms() {
+    public EngagementTracker getEngagementTracker() {
+        return engagementTracker;
+    }
+
+    private void updateHologram(ExpeditionChest chest) {
         ConfigManager config = plugin.getConfigManager();
         
-        for (ExpeditionChest chest : plugin.getDataManager().getExpeditionChests().values()) {
-            switch (chest.getState()) {
-                case CONQUERED -> {
-                    if (chest.getOwnerUUID() != null) {
-                        Player owner = Bukkit.getPlayer(chest.getOwnerUUID());
-                        String ownerName = owner != null ? owner.getName() : "Bilinmiyor";
-                        plugin.getHologramManager().updateHologram(chest, 
-                            config.getHologramTitle(),
-                            config.getHologramStatusOwner().replace("%player%", ownerName),
-                            config.getHologramStatusTimeLeft().replace("%time%", ColorUtils.formatTime(chest.getRemainingOwnershipTime())));
-                    }
-                }
-                case COOLDOWN -> {
+        switch (chest.getState()) {
+            case CONQUERED -> {
+                if (chest.getOwnerUUID() != null) {
                     plugin.getHologramManager().updateHologram(chest, 
                         config.getHologramTitle(),
-                        config.getHologramStatusCooldown().replace("%time%", ColorUtils.formatTime(chest.getRemainingCooldown())));
+                        config.getHologramStatusOwner().replace("%player%", plugin.getHologramManager().getOwnerName(chest)),
+                        config.getHologramStatusTimeLeft().replace("%time%", ColorUtils.formatTime(chest.getRemainingOwnershipTime())));
                 }
             }
+            case COOLDOWN -> {
+                plugin.getHologramManager().updateHologram(chest, 
+                    config.getHologramTitle(),
+                    config.getHologramStatusCooldown().replace("%time%", ColorUtils.formatTime(chest.getRemainingCooldown())));
+            }
         }
     }
 
     public ExpeditionChest getNearbyExpeditionChest(Location location, double radius) {
-        for (ExpeditionChest chest : plugin.getDataManager().getExpeditionChests().values()) {
-            Location chestLoc = chest.getLocation();
-            if (chestLoc.getWorld() != null && chestLoc.getWorld().equals(location.getWorld())) {
-                if (chestLoc.distance(location) <= radius) {
-                    return chest;
-                }
-            }
-        }
-        return null;
+        return plugin.getDataManager().getSpatialIndex().getNearest(location, radius);
     }
 }
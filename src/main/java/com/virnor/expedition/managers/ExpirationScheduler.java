@@ -0,0 +1,79 @@
+package com.virnor.expedition.managers;
+
+import com.virnor.expedition.data.ExpeditionChest;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Min-heap of pending ownership and cooldown expirations keyed by expiry time.
+ * Each chest has at most one pending expiry; scheduling again or cancelling
+ * invalidates the previous entry, which is then dropped lazily when it surfaces.
+ */
+public class ExpirationScheduler {
+
+    public enum Type {
+        OWNERSHIP,
+        COOLDOWN
+    }
+
+    private final PriorityQueue<Entry> queue;
+    private final Map<ExpeditionChest, Entry> pending;
+
+    public ExpirationScheduler() {
+        this.queue = new PriorityQueue<>(Comparator.comparingLong(entry -> entry.expireTime));
+        this.pending = new HashMap<>();
+    }
+
+    /**
+     * Schedule an expiry for a chest, replacing any pending one
+     */
+    public void schedule(ExpeditionChest chest, Type type, long expireTime) {
+        cancel(chest);
+        Entry entry = new Entry(chest, type, expireTime);
+        pending.put(chest, entry);
+        queue.add(entry);
+    }
+
+    /**
+     * Cancel the pending expiry of a chest, if any
+     */
+    public void cancel(ExpeditionChest chest) {
+        Entry entry = pending.remove(chest);
+        if (entry != null) {
+            entry.cancelled = true;
+        }
+    }
+
+    /**
+     * Hand every expiry that is due at the given time to the handler.
+     * Matches ExpeditionChest's expiry checks, which treat the expire time itself as not yet expired.
+     */
+    public void poll(long now, BiConsumer<ExpeditionChest, Type> handler) {
+        while (!queue.isEmpty() && queue.peek().expireTime < now) {
+            Entry entry = queue.poll();
+            if (entry.cancelled) continue;
+
+            pending.remove(entry.chest);
+            handler.accept(entry.chest, entry.type);
+        }
+    }
+
+    public void clear() {
+        queue.clear();
+        pending.clear();
+    }
+
+    private static class Entry {
+        private final ExpeditionChest chest;
+        private final Type type;
+        private final long expireTime;
+        private boolean cancelled;
+
+        private Entry(ExpeditionChest chest, Type type, long expireTime) {
+            this.chest = chest;
+            this.type = type;
+            this.expireTime = expireTime;
+        }
+    }
+}
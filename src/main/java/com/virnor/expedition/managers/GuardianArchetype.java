@@ -0,0 +1,67 @@
+package com.virnor.expedition.managers;
+
+import com.virnor.expedition.utils.ColorUtils;
+import org.bukkit.attribute.Attribute;
+import org.bukkit.attribute.AttributeInstance;
+import org.bukkit.entity.*;
+
+/**
+ * Everything a guardian is configured with, resolved once from the config.
+ * Applied inside the spawn consumer, so the mob is complete before it is
+ * added to the world and sent to clients.
+ */
+public class GuardianArchetype {
+
+    private final Class<? extends LivingEntity> entityClass;
+    private final String name;
+    private final double health;
+    private final double damage;
+
+    public GuardianArchetype(EntityType type, String name, double health, double damage) {
+        this.entityClass = livingClass(type);
+        this.name = ColorUtils.colorize(name);
+        this.health = health;
+        this.damage = damage;
+    }
+
+    public Class<? extends LivingEntity> getEntityClass() {
+        return entityClass;
+    }
+
+    public void apply(LivingEntity mob) {
+        mob.setCustomName(name);
+        mob.setCustomNameVisible(true);
+
+        AttributeInstance maxHealth = mob.getAttribute(Attribute.GENERIC_MAX_HEALTH);
+        if (maxHealth != null) {
+            maxHealth.setBaseValue(health);
+            mob.setHealth(health);
+        }
+
+        AttributeInstance attackDamage = mob.getAttribute(Attribute.GENERIC_ATTACK_DAMAGE);
+        if (attackDamage != null) {
+            attackDamage.setBaseValue(damage);
+        }
+
+        // Prevent mob from despawning
+        mob.setRemoveWhenFarAway(false);
+        mob.setPersistent(true);
+
+        if (mob instanceof Zombie zombie) {
+            zombie.setShouldBurnInDay(false);
+        }
+        if (mob instanceof Skeleton skeleton) {
+            skeleton.setShouldBurnInDay(false);
+        }
+    }
+
+    // Types that can't be spawned as a living mob fall back to a zombie
+    @SuppressWarnings("unchecked")
+    private static Class<? extends LivingEntity> livingClass(EntityType type) {
+        Class<? extends Entity> entityClass = type.getEntityClass();
+        if (entityClass != null && LivingEntity.class.isAssignableFrom(entityClass)) {
+            return (Class<? extends LivingEntity>) entityClass;
+        }
+        return Zombie.class;
+    }
+}
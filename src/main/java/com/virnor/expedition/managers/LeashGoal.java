@@ -0,0 +1,129 @@
+package com.virnor.expedition.managers;
+
+import com.destroystokyo.paper.entity.ai.Goal;
+import com.destroystokyo.paper.entity.ai.GoalKey;
+import com.destroystokyo.paper.entity.ai.GoalType;
+import com.virnor.expedition.VirnorExpedition;
+import com.virnor.expedition.data.ExpeditionChest;
+import com.virnor.expedition.data.SpawnRing;
+import io.papermc.paper.entity.TeleportFlag;
+import org.bukkit.Location;
+import org.bukkit.entity.Mob;
+
+import java.util.EnumSet;
+
+/**
+ * Keeps a guardian near its chest. Past the leash distance the guardian walks
+ * back to its ring; it is only teleported if it gets past the teleport distance
+ * or stops getting closer. While the guardian is in range the goal only
+ * compares one distance per check.
+ */
+public class LeashGoal implements Goal<Mob> {
+
+    private static final EnumSet<GoalType> TYPES = EnumSet.of(GoalType.MOVE);
+    // Ticks a returning guardian may go without getting closer before it is teleported
+    private static final int STUCK_TICKS = 100;
+    private static final double RETURN_SPEED = 1.2;
+
+    private final VirnorExpedition plugin;
+    private final GoalKey<Mob> key;
+    private final Mob mob;
+    private final ExpeditionChest chest;
+    // Reused for every distance check
+    private final Location position;
+    private double closestDistance;
+    private int stuckTicks;
+
+    public LeashGoal(VirnorExpedition plugin, GoalKey<Mob> key, Mob mob, ExpeditionChest chest) {
+        this.plugin = plugin;
+        this.key = key;
+        this.mob = mob;
+        this.chest = chest;
+        this.position = new Location(null, 0, 0, 0);
+    }
+
+    @Override
+    public boolean shouldActivate() {
+        double leash = plugin.getConfigManager().getLeashDistance();
+        return distanceSquared() > leash * leash;
+    }
+
+    @Override
+    public boolean shouldStayActive() {
+        // Walk well back inside the leash so the goal doesn't flicker at its edge
+        double leash = plugin.getConfigManager().getLeashDistance() / 2;
+        return distanceSquared() > leash * leash;
+    }
+
+    @Override
+    public void start() {
+        closestDistance = distanceSquared();
+        stuckTicks = 0;
+        mob.setTarget(null);
+        mob.getPathfinder().moveTo(home(), RETURN_SPEED);
+    }
+
+    @Override
+    public void tick() {
+        double distance = distanceSquared();
+        double teleport = plugin.getConfigManager().getTeleportDistance();
+        if (distance > teleport * teleport) {
+            teleportHome();
+            return;
+        }
+
+        if (distance < closestDistance - 1) {
+            closestDistance = distance;
+            stuckTicks = 0;
+        } else if (++stuckTicks > STUCK_TICKS) {
+            teleportHome();
+            return;
+        }
+
+        if (!mob.getPathfinder().hasPath()) {
+            mob.getPathfinder().moveTo(home(), RETURN_SPEED);
+        }
+    }
+
+    @Override
+    public void stop() {
+        mob.getPathfinder().stopPathfinding();
+    }
+
+    @Override
+    public GoalKey<Mob> getKey() {
+        return key;
+    }
+
+    @Override
+    public EnumSet<GoalType> getTypes() {
+        return TYPES;
+    }
+
+    private double distanceSquared() {
+        mob.getLocation(position);
+        // Through a portal counts as out of range
+        if (position.getWorld() != chest.getLocation().getWorld()) return Double.MAX_VALUE;
+        return position.distanceSquared(chest.getLocation());
+    }
+
+    private void teleportHome() {
+        mob.getPathfinder().stopPathfinding();
+        mob.teleport(home(), TeleportFlag.EntityState.RETAIN_PASSENGERS);
+        closestDistance = distanceSquared();
+        stuckTicks = 0;
+    }
+
+    private Location home() {
+        SpawnRing ring = chest.getSpawnRing();
+        if (ring != null) {
+            int index = ring.randomIndex();
+            if (!ring.isObstructed(index)) {
+                return ring.get(index);
+            }
+            plugin.getMobManager().invalidateSpawnRing(chest);
+        }
+        plugin.getMobManager().requestSpawnRing(chest);
+        return chest.getLocation().clone().add(0.5, 1, 0.5);
+    }
+}
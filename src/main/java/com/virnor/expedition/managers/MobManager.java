@@ -1,116 +1,126 @@
 package com.virnor.expedition.managers;
 
+import com.destroystokyo.paper.entity.ai.GoalKey;
 import com.virnor.expedition.VirnorExpedition;
 import com.virnor.expedition.config.ConfigManager;
+import com.virnor.expedition.data.ChestSpatialIndex;
 import com.virnor.expedition.data.ExpeditionChest;
-import com.virnor.expedition.utils.ColorUtils;
+import com.virnor.expedition.data.SpawnRing;
+import com.virnor.expedition.utils.EntityTags;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
 import org.bukkit.Location;
-import org.bukkit.attribute.Attribute;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.block.Block;
 import org.bukkit.entity.*;
-import org.bukkit.metadata.FixedMetadataValue;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.util.*;
 
 public class MobManager {
 
+    // Chunks checked per tick for leftover guardians after startup
+    private static final int SWEEP_CHUNKS_PER_TICK = 8;
+
     private final VirnorExpedition plugin;
-    private final Map<UUID, String> mobToChestMap; // Mob UUID -> Chest ID
+    private final Map<UUID, ExpeditionChest> mobToChestMap; // Mob UUID -> Chest
+    private final TrackedEntities<LivingEntity> guardians;
+    private final ActivationQueue activationQueue;
+    // Chests whose spawn ring is being built -> token of the latest request
+    private final Map<ExpeditionChest, Object> ringRequests;
+    private final GoalKey<Mob> leashKey;
+    private BukkitTask sweepTask;
 
     public MobManager(VirnorExpedition plugin) {
         this.plugin = plugin;
         this.mobToChestMap = new HashMap<>();
+        this.guardians = new TrackedEntities<>(LivingEntity.class);
+        this.ringRequests = new HashMap<>();
+        this.leashKey = GoalKey.of(Mob.class, new NamespacedKey(plugin, "expedition_leash"));
+        this.activationQueue = new ActivationQueue(
+            () -> plugin.getConfigManager().getSpawnsPerTick(),
+            () -> plugin.getConfigManager().getMaxActivePerWorld(),
+            this::canSpawn,
+            this::spawnNextMob,
+            chest -> {
+                if (!chest.isDormant()) {
+                    plugin.getHologramManager().refreshHologram(chest);
+                }
+            });
     }
 
+    /**
+     * Queue a chest's guardians. They spawn over the next ticks as the
+     * activation queue's budget and the world's encounter cap allow; until
+     * the last one is out, the pending ones count as alive.
+     */
     public void spawnMobsForChest(ExpeditionChest chest) {
-        ConfigManager config = plugin.getConfigManager();
-        Location chestLoc = chest.getLocation();
-        
-        int mobCount = config.getMobCount();
-        double radius = config.getMobSpawnRadius();
+        int mobCount = plugin.getConfigManager().getMobCount();
         
         chest.clearMobs();
-        
-        for (int i = 0; i < mobCount; i++) {
-            // Calculate spawn position around chest
-            double angle = (2 * Math.PI / mobCount) * i;
-            double x = chestLoc.getX() + 0.5 + (radius * Math.cos(angle));
-            double z = chestLoc.getZ() + 0.5 + (radius * Math.sin(angle));
-            Location spawnLoc = new Location(chestLoc.getWorld(), x, chestLoc.getY() + 1, z);
-            
-            // Make sure location is safe
-            while (!spawnLoc.getBlock().isPassable() && spawnLoc.getY() < chestLoc.getY() + 5) {
-                spawnLoc.add(0, 1, 0);
-            }
-            
-            // Spawn the mob
-            LivingEntity mob = (LivingEntity) chestLoc.getWorld().spawnEntity(spawnLoc, config.getMobType());
-            
-            // Configure mob
-            configureMob(mob, chest);
-            
-            // Track mob
-            chest.addMobUUID(mob.getUniqueId());
-            mobToChestMap.put(mob.getUniqueId(), chest.getId());
-            
-            // Create health bar hologram
-            plugin.getDamageTracker().createHealthBar(mob);
-        }
+        if (mobCount <= 0) return;
         
         chest.setMobsAlive(mobCount);
+        chest.setPendingSpawns(mobCount);
+        activationQueue.add(chest);
     }
 
-    private void configureMob(LivingEntity mob, ExpeditionChest chest) {
+    /**
+     * Spawn the next guardian of a queued chest
+     */
+    private void spawnNextMob(ExpeditionChest chest) {
         ConfigManager config = plugin.getConfigManager();
+        SpawnRing ring = chest.getSpawnRing();
+        Location spawnLoc = ring.get(ring.size() - chest.getPendingSpawns());
         
-        // Set custom name
-        mob.setCustomName(ColorUtils.colorize(config.getMobName()));
-        mob.setCustomNameVisible(true);
+        // Spawn the mob fully configured, so clients never see a plain one
+        GuardianArchetype archetype = config.getGuardianArchetype();
+        LivingEntity mob = spawnLoc.getWorld().spawn(spawnLoc, archetype.getEntityClass(), entity -> {
+            archetype.apply(entity);
+            plugin.getEntityTags().tagGuardian(entity, chest);
+        });
         
-        // Set health
-        double health = config.getMobHealth();
-        if (mob.getAttribute(Attribute.GENERIC_MAX_HEALTH) != null) {
-            mob.getAttribute(Attribute.GENERIC_MAX_HEALTH).setBaseValue(health);
-            mob.setHealth(health);
+        // Track mob
+        chest.addMobUUID(mob.getUniqueId());
+        mobToChestMap.put(mob.getUniqueId(), chest);
+        guardians.track(mob);
+        leash(mob, chest);
+        if (mob instanceof Mob guardian) {
+            // Joining a fight nobody is near, like the guardians already there
+            guardian.setAware(!plugin.getExpeditionManager().getEngagementTracker().isThrottled(chest));
         }
         
-        // Set damage
-        double damage = config.getMobDamage();
-        if (mob.getAttribute(Attribute.GENERIC_ATTACK_DAMAGE) != null) {
-            mob.getAttribute(Attribute.GENERIC_ATTACK_DAMAGE).setBaseValue(damage);
-        }
-        
-        // Set metadata
-        mob.setMetadata("expedition_mob", new FixedMetadataValue(plugin, chest.getId()));
-        mob.setMetadata("expedition_chest_id", new FixedMetadataValue(plugin, chest.getId()));
-        
-        // Prevent mob from despawning
-        mob.setRemoveWhenFarAway(false);
-        mob.setPersistent(true);
-        
-        // Make mob aggressive if possible
-        if (mob instanceof Zombie zombie) {
-            zombie.setShouldBurnInDay(false);
-        }
-        if (mob instanceof Skeleton skeleton) {
-            skeleton.setShouldBurnInDay(false);
-        }
+        // Create health bar hologram
+        plugin.getDamageTracker().createHealthBar(mob);
+    }
+
+    /**
+     * Spawn this tick's share of queued guardians
+     */
+    public void tickSpawns() {
+        activationQueue.tick();
     }
 
     public void removeMobsForChest(ExpeditionChest chest) {
+        activationQueue.remove(chest);
+        
         for (UUID mobUUID : chest.getMobUUIDs()) {
             // Remove health bar first
             plugin.getDamageTracker().removeHealthBar(mobUUID);
             
-            Entity entity = plugin.getServer().getEntity(mobUUID);
+            LivingEntity entity = guardians.get(mobUUID);
             if (entity != null && !entity.isDead()) {
                 entity.remove();
             }
+            guardians.untrack(mobUUID);
             mobToChestMap.remove(mobUUID);
         }
         chest.clearMobs();
         
         // Clear damage tracking for this chest
-        plugin.getDamageTracker().clearChestDamage(chest.getId());
+        plugin.getDamageTracker().clearChestDamage(chest);
     }
 
     public void removeAllMobs() {
@@ -118,66 +128,177 @@ public class MobManager {
             removeMobsForChest(chest);
         }
         mobToChestMap.clear();
+        guardians.clear();
+        activationQueue.clear();
         
         // Clean up all health bars
         plugin.getDamageTracker().removeAllHealthBars();
     }
 
-    public String getChestIdByMob(UUID mobUUID) {
+    /**
+     * The chest an expedition mob guards, or null if the entity is not one
+     */
+    public ExpeditionChest getChestByMob(UUID mobUUID) {
         return mobToChestMap.get(mobUUID);
     }
 
-    public boolean isExpeditionMob(Entity entity) {
-        return entity.hasMetadata("expedition_mob");
+    /**
+     * Check an entity that was loaded from disk. A tagged guardian that is still
+     * tracked is bound again; any other tagged entity is left over from a crash,
+     * a restart or a fight that ended while its chunk was unloaded, and is removed.
+     */
+    public void reattach(Entity entity) {
+        EntityTags tags = plugin.getEntityTags();
+        
+        String chestId = tags.getGuardianChestId(entity);
+        if (chestId != null) {
+            if (guardians.isTracked(entity.getUniqueId())) {
+                onGuardianAdded(entity);
+            } else {
+                plugin.getLogger().fine("Removing leftover guardian of " + chestId);
+                entity.remove();
+            }
+            return;
+        }
+        
+        // Health bars and holograms are never saved, so a loaded one is always stale
+        if (tags.isDisplay(entity)) {
+            entity.remove();
+        }
     }
 
-    public void teleportMobsToChest(ExpeditionChest chest) {
-        ConfigManager config = plugin.getConfigManager();
-        Location chestLoc = chest.getLocation();
-        double radius = config.getMobSpawnRadius();
-        
-        List<UUID> mobUUIDs = new ArrayList<>(chest.getMobUUIDs());
-        int index = 0;
+    /**
+     * Check the chunks that were loaded before the plugin enabled, a few per tick.
+     * Chunks loaded afterwards are checked by the EntitiesLoadEvent listener.
+     */
+    public void sweepLoadedChunks() {
+        Deque<Chunk> chunks = new ArrayDeque<>();
+        for (World world : Bukkit.getWorlds()) {
+            chunks.addAll(Arrays.asList(world.getLoadedChunks()));
+        }
         
-        for (UUID mobUUID : mobUUIDs) {
-            Entity entity = plugin.getServer().getEntity(mobUUID);
-            if (entity != null && !entity.isDead()) {
-                double angle = (2 * Math.PI / mobUUIDs.size()) * index;
-                double x = chestLoc.getX() + 0.5 + (radius * Math.cos(angle));
-                double z = chestLoc.getZ() + 0.5 + (radius * Math.sin(angle));
-                Location teleportLoc = new Location(chestLoc.getWorld(), x, chestLoc.getY() + 1, z);
+        if (sweepTask != null) {
+            sweepTask.cancel();
+        }
+        sweepTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+            for (int i = 0; i < SWEEP_CHUNKS_PER_TICK && !chunks.isEmpty(); i++) {
+                Chunk chunk = chunks.poll();
+                if (!chunk.isLoaded()) continue;
                 
-                entity.teleport(teleportLoc);
-                index++;
+                for (Entity entity : chunk.getEntities()) {
+                    reattach(entity);
+                }
+            }
+            if (chunks.isEmpty()) {
+                sweepTask.cancel();
+                sweepTask = null;
+            }
+        }, 1L, 1L);
+    }
+
+    /**
+     * Whether a queued chest can spawn its next guardian now. Starts building
+     * its spawn ring if it has none for the current settings.
+     */
+    private boolean canSpawn(ExpeditionChest chest) {
+        // Spawning would load the chunk; wait until a player brings it back
+        Location loc = chest.getLocation();
+        if (!loc.getWorld().isChunkLoaded(loc.getBlockX() >> 4, loc.getBlockZ() >> 4)) return false;
+        
+        ConfigManager config = plugin.getConfigManager();
+        SpawnRing ring = chest.getSpawnRing();
+        if (ring != null && ring.matches(config.getMobSpawnRadius(), Math.max(1, config.getMobCount()))) {
+            // Block events don't cover every way a block can appear, so look before spawning
+            if (!ring.isObstructed(ring.size() - chest.getPendingSpawns())) {
+                return true;
             }
+            invalidateSpawnRing(chest);
         }
+        requestSpawnRing(chest);
+        return false;
     }
 
-    public void checkMobDistances() {
+    /**
+     * Build a chest's spawn ring from chunk snapshots in the background.
+     * Does nothing if one is already being built or a chunk it needs isn't loaded.
+     */
+    public void requestSpawnRing(ExpeditionChest chest) {
+        if (ringRequests.containsKey(chest)) return;
+        
         ConfigManager config = plugin.getConfigManager();
-        double teleportDistance = config.getTeleportDistance();
+        Location chestLoc = chest.getLocation();
+        World world = chestLoc.getWorld();
+        double radius = config.getMobSpawnRadius();
+        int count = Math.max(1, config.getMobCount());
         
-        for (ExpeditionChest chest : plugin.getDataManager().getExpeditionChests().values()) {
-            if (chest.getMobsAlive() <= 0) continue;
-            
-            Location chestLoc = chest.getLocation();
-            
-            for (UUID mobUUID : chest.getMobUUIDs()) {
-                Entity entity = plugin.getServer().getEntity(mobUUID);
-                if (entity != null && !entity.isDead()) {
-                    double distance = entity.getLocation().distance(chestLoc);
-                    if (distance > teleportDistance) {
-                        // Teleport mob back to chest
-                        double angle = Math.random() * 2 * Math.PI;
-                        double radius = config.getMobSpawnRadius();
-                        double x = chestLoc.getX() + 0.5 + (radius * Math.cos(angle));
-                        double z = chestLoc.getZ() + 0.5 + (radius * Math.sin(angle));
-                        Location teleportLoc = new Location(chestLoc.getWorld(), x, chestLoc.getY() + 1, z);
-                        
-                        entity.teleport(teleportLoc);
-                    }
+        int[] bounds = SpawnRing.chunkBounds(chestLoc, radius);
+        Map<Long, ChunkSnapshot> chunks = new HashMap<>();
+        for (int cx = bounds[0]; cx <= bounds[1]; cx++) {
+            for (int cz = bounds[2]; cz <= bounds[3]; cz++) {
+                if (!world.isChunkLoaded(cx, cz)) return;
+                chunks.put(ChestSpatialIndex.chunkKey(cx, cz), world.getChunkAt(cx, cz).getChunkSnapshot(false, false, false));
+            }
+        }
+        
+        Object request = new Object();
+        ringRequests.put(chest, request);
+        int maxY = world.getMaxHeight() - 1;
+        
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            SpawnRing ring = SpawnRing.compute(chestLoc, radius, count, maxY, chunks);
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                // Dropped if a block in the ring changed while it was being built
+                if (ringRequests.remove(chest, request)) {
+                    chest.setSpawnRing(ring);
                 }
+            });
+        });
+    }
+
+    /**
+     * Forget the spawn rings a changed block may lie in
+     */
+    public void onBlockChange(Block block) {
+        double reach = plugin.getConfigManager().getMobSpawnRadius() + 6;
+        for (ExpeditionChest chest : plugin.getDataManager().getSpatialIndex().getNearby(block.getLocation(), reach)) {
+            invalidateSpawnRing(chest);
+        }
+    }
+
+    /**
+     * Drop a chest's spawn ring, and any being built, so it is worked out again
+     */
+    public void invalidateSpawnRing(ExpeditionChest chest) {
+        chest.setSpawnRing(null);
+        ringRequests.remove(chest);
+    }
+
+    /**
+     * Give a guardian the goal that keeps it near its chest
+     */
+    private void leash(LivingEntity entity, ExpeditionChest chest) {
+        if (!(entity instanceof Mob mob)) return;
+        if (Bukkit.getMobGoals().hasGoal(mob, leashKey)) return;
+        
+        Bukkit.getMobGoals().addGoal(mob, 1, new LeashGoal(plugin, leashKey, mob, chest));
+    }
+
+    /**
+     * A guardian came back with its chunk as a new entity object; bind it and restore
+     * its leash and health bar
+     */
+    public void onGuardianAdded(Entity entity) {
+        if (!guardians.isTracked(entity.getUniqueId())) return;
+        
+        guardians.rebind(entity);
+        ExpeditionChest chest = mobToChestMap.get(entity.getUniqueId());
+        if (chest != null && entity instanceof LivingEntity living) {
+            leash(living, chest);
+            if (living instanceof Mob mob) {
+                mob.setAware(!plugin.getExpeditionManager().getEngagementTracker().isThrottled(chest));
             }
+            // Its bar was not saved with the chunk; the next flush spawns a new one
+            plugin.getDamageTracker().markHealthDirty(living);
         }
     }
 
@@ -185,17 +306,27 @@ public class MobManager {
         // Remove health bar
         plugin.getDamageTracker().removeHealthBar(mobUUID);
         
-        String chestId = mobToChestMap.remove(mobUUID);
-        if (chestId != null) {
-            ExpeditionChest chest = plugin.getDataManager().getExpeditionChest(chestId);
-            if (chest != null) {
-                chest.removeMobUUID(mobUUID);
-                chest.decrementMobsAlive();
+        guardians.untrack(mobUUID);
+        ExpeditionChest chest = mobToChestMap.remove(mobUUID);
+        if (chest != null) {
+            chest.removeMobUUID(mobUUID);
+            chest.decrementMobsAlive();
+            
+            // Last guardian gone, the world has a free encounter slot again
+            if (chest.getMobsAlive() <= 0) {
+                activationQueue.remove(chest);
             }
         }
     }
 
-    public Map<UUID, String> getMobToChestMap() {
+    /**
+     * Live references to the guardians that are alive
+     */
+    public TrackedEntities<LivingEntity> getGuardians() {
+        return guardians;
+    }
+
+    public Map<UUID, ExpeditionChest> getMobToChestMap() {
         return mobToChestMap;
     }
 }
@@ -0,0 +1,172 @@
+package com.virnor.expedition.managers;
+
+import com.virnor.expedition.VirnorExpedition;
+import com.virnor.expedition.data.ChestSpatialIndex;
+import com.virnor.expedition.data.ExpeditionChest;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.*;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Tracks which expedition chests each player is within a radius of.
+ * Candidate chests are gathered from the chunks around the player only when the
+ * player changes chunk, so a block move just re-tests a handful of local chests.
+ */
+public class ProximityTracker {
+
+    /**
+     * Receives enter/leave notifications for a tracker's radius
+     */
+    public interface Callback {
+        void onEnter(Player player, ExpeditionChest chest);
+
+        void onLeave(Player player, ExpeditionChest chest);
+    }
+
+    private final VirnorExpedition plugin;
+    private final DoubleSupplier radiusSupplier;
+    private final Callback callback;
+
+    // PlayerUUID -> tracking state
+    private final Map<UUID, PlayerState> players;
+
+    // Chest -> players currently inside its radius
+    private final Map<ExpeditionChest, Set<UUID>> chestPlayers;
+
+    public ProximityTracker(VirnorExpedition plugin, DoubleSupplier radiusSupplier, Callback callback) {
+        this.plugin = plugin;
+        this.radiusSupplier = radiusSupplier;
+        this.callback = callback;
+        this.players = new HashMap<>();
+        this.chestPlayers = new HashMap<>();
+    }
+
+    /**
+     * Re-evaluate a player at a new location. Callers should only invoke this
+     * when the player changed block, chunk or world.
+     */
+    public void update(Player player, Location location) {
+        World world = location.getWorld();
+        if (world == null) return;
+
+        ChestSpatialIndex index = plugin.getDataManager().getSpatialIndex();
+        double radius = radiusSupplier.getAsDouble();
+        int chunkX = location.getBlockX() >> 4;
+        int chunkZ = location.getBlockZ() >> 4;
+
+        PlayerState state = players.computeIfAbsent(player.getUniqueId(), k -> new PlayerState());
+        if (state.candidates == null
+                || !world.getUID().equals(state.worldId)
+                || state.chunkX != chunkX || state.chunkZ != chunkZ
+                || state.radius != radius
+                || state.indexVersion != index.getModCount()) {
+            state.worldId = world.getUID();
+            state.chunkX = chunkX;
+            state.chunkZ = chunkZ;
+            state.radius = radius;
+            state.indexVersion = index.getModCount();
+            state.candidates = collectCandidates(index, world, chunkX, chunkZ, radius);
+        }
+
+        double radiusSquared = radius * radius;
+        Set<ExpeditionChest> nowInside = new HashSet<>();
+        for (ExpeditionChest chest : state.candidates) {
+            if (chest.getLocation().distanceSquared(location) <= radiusSquared) {
+                nowInside.add(chest);
+            }
+        }
+
+        // Leave first so callbacks see a consistent view
+        Iterator<ExpeditionChest> it = state.inside.iterator();
+        while (it.hasNext()) {
+            ExpeditionChest chest = it.next();
+            if (!nowInside.contains(chest)) {
+                it.remove();
+                removeChestPlayer(chest, player.getUniqueId());
+                callback.onLeave(player, chest);
+            }
+        }
+
+        for (ExpeditionChest chest : nowInside) {
+            if (state.inside.add(chest)) {
+                chestPlayers.computeIfAbsent(chest, k -> new HashSet<>()).add(player.getUniqueId());
+                callback.onEnter(player, chest);
+            }
+        }
+    }
+
+    /**
+     * Stop tracking a player, firing leave for every chest they were near
+     */
+    public void remove(Player player) {
+        PlayerState state = players.remove(player.getUniqueId());
+        if (state == null) return;
+
+        for (ExpeditionChest chest : state.inside) {
+            removeChestPlayer(chest, player.getUniqueId());
+            callback.onLeave(player, chest);
+        }
+    }
+
+    /**
+     * Drop all tracking for a chest that no longer exists. No callbacks are fired.
+     */
+    public void forget(ExpeditionChest chest) {
+        Set<UUID> uuids = chestPlayers.remove(chest);
+        if (uuids == null) return;
+
+        for (UUID uuid : uuids) {
+            PlayerState state = players.get(uuid);
+            if (state != null) {
+                state.inside.remove(chest);
+            }
+        }
+    }
+
+    public void clear() {
+        players.clear();
+        chestPlayers.clear();
+    }
+
+    /**
+     * Get the players currently inside a chest's radius
+     */
+    public Set<UUID> getPlayersNear(ExpeditionChest chest) {
+        Set<UUID> uuids = chestPlayers.get(chest);
+        return uuids != null ? uuids : Collections.emptySet();
+    }
+
+    private List<ExpeditionChest> collectCandidates(ChestSpatialIndex index, World world, int chunkX, int chunkZ, double radius) {
+        int chunkRadius = (int) Math.ceil(radius / 16.0);
+        List<ExpeditionChest> candidates = new ArrayList<>();
+        for (int cx = chunkX - chunkRadius; cx <= chunkX + chunkRadius; cx++) {
+            for (int cz = chunkZ - chunkRadius; cz <= chunkZ + chunkRadius; cz++) {
+                candidates.addAll(index.getInChunk(world, cx, cz));
+            }
+        }
+        return candidates;
+    }
+
+    private void removeChestPlayer(ExpeditionChest chest, UUID playerUUID) {
+        Set<UUID> uuids = chestPlayers.get(chest);
+        if (uuids != null) {
+            uuids.remove(playerUUID);
+            if (uuids.isEmpty()) {
+                chestPlayers.remove(chest);
+            }
+        }
+    }
+
+    private static class PlayerState {
+        private UUID worldId;
+        private int chunkX;
+        private int chunkZ;
+        private double radius;
+        private int indexVersion;
+        private List<ExpeditionChest> candidates;
+        private final Set<ExpeditionChest> inside = new HashSet<>();
+    }
+}
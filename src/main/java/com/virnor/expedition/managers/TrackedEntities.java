@@ -0,0 +1,69 @@
+package com.virnor.expedition.managers;
+
+import org.bukkit.entity.Entity;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Live references to the entities the plugin spawned, so they can be reached
+ * without searching every world by UUID. An entity that leaves the world (its
+ * chunk unloads) stays tracked without a reference and is bound again when it
+ * is added back.
+ */
+public class TrackedEntities<T extends Entity> {
+
+    private final Class<T> type;
+    // UUID -> entity, or null while the entity is not in a loaded chunk
+    private final Map<UUID, T> entities;
+
+    public TrackedEntities(Class<T> type) {
+        this.type = type;
+        this.entities = new HashMap<>();
+    }
+
+    public void track(T entity) {
+        entities.put(entity.getUniqueId(), entity);
+    }
+
+    public void untrack(UUID uuid) {
+        entities.remove(uuid);
+    }
+
+    public boolean isTracked(UUID uuid) {
+        return entities.containsKey(uuid);
+    }
+
+    /**
+     * The entity if it is tracked and currently in a loaded world, otherwise null
+     */
+    public T get(UUID uuid) {
+        T entity = entities.get(uuid);
+        return entity != null && entity.isValid() ? entity : null;
+    }
+
+    /**
+     * Drop the reference to an entity that left the world, keeping it tracked
+     */
+    public void unbind(Entity entity) {
+        UUID uuid = entity.getUniqueId();
+        if (entities.get(uuid) == entity) {
+            entities.put(uuid, null);
+        }
+    }
+
+    /**
+     * Point a tracked UUID at the entity object that was just added back to the world
+     */
+    public void rebind(Entity entity) {
+        UUID uuid = entity.getUniqueId();
+        if (entities.containsKey(uuid) && type.isInstance(entity)) {
+            entities.put(uuid, type.cast(entity));
+        }
+    }
+
+    public void clear() {
+        entities.clear();
+    }
+}
@@ -0,0 +1,44 @@
+package com.virnor.expedition.utils;
+
+import com.virnor.expedition.data.ExpeditionChest;
+import org.bukkit.NamespacedKey;
+import org.bukkit.entity.Entity;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * PersistentDataContainer tags that mark the entities spawned for a chest
+ * with the chest's id, so they can be recognised after a restart
+ */
+public class EntityTags {
+
+    private final NamespacedKey guardianKey;
+    private final NamespacedKey displayKey;
+
+    public EntityTags(Plugin plugin) {
+        this.guardianKey = new NamespacedKey(plugin, "expedition_mob");
+        this.displayKey = new NamespacedKey(plugin, "expedition_display");
+    }
+
+    public void tagGuardian(Entity entity, ExpeditionChest chest) {
+        entity.getPersistentDataContainer().set(guardianKey, PersistentDataType.STRING, chest.getId());
+    }
+
+    /**
+     * Tag a health bar or hologram entity
+     */
+    public void tagDisplay(Entity entity, ExpeditionChest chest) {
+        entity.getPersistentDataContainer().set(displayKey, PersistentDataType.STRING, chest.getId());
+    }
+
+    /**
+     * The id of the chest a guardian was spawned for, or null if the entity is not one
+     */
+    public String getGuardianChestId(Entity entity) {
+        return entity.getPersistentDataContainer().get(guardianKey, PersistentDataType.STRING);
+    }
+
+    public boolean isDisplay(Entity entity) {
+        return entity.getPersistentDataContainer().has(displayKey, PersistentDataType.STRING);
+    }
+}
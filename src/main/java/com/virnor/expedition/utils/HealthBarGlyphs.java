@@ -0,0 +1,54 @@
+package com.virnor.expedition.utils;
+
+/**
+ * Pre-colorized health bar prefixes, one per color and filled bar count.
+ * Built once when the config loads, so a redraw only appends the health numbers.
+ */
+public class HealthBarGlyphs {
+
+    private static final int HIGH = 0;
+    private static final int MEDIUM = 1;
+    private static final int LOW = 2;
+
+    private static final String CURRENT_PREFIX = ColorUtils.colorize(" &f");
+    private static final String MAX_PREFIX = ColorUtils.colorize("&7/&f");
+
+    private final int totalBars;
+    // Color tier -> filled bar count -> colorized bar
+    private final String[][] bars;
+
+    public HealthBarGlyphs(int totalBars, String symbol, String highColor, String mediumColor,
+                           String lowColor, String backgroundColor) {
+        this.totalBars = Math.max(0, totalBars);
+        this.bars = new String[3][this.totalBars + 1];
+
+        String[] colors = {highColor, mediumColor, lowColor};
+        for (int tier = 0; tier < colors.length; tier++) {
+            for (int filled = 0; filled <= this.totalBars; filled++) {
+                bars[tier][filled] = ColorUtils.colorize(colors[tier] + symbol.repeat(filled)
+                    + backgroundColor + symbol.repeat(this.totalBars - filled));
+            }
+        }
+    }
+
+    /**
+     * The full health bar text for the given health
+     */
+    public String format(double currentHealth, double maxHealth) {
+        double healthPercent = maxHealth > 0 ? currentHealth / maxHealth : 0;
+
+        int tier;
+        if (healthPercent > 0.5) {
+            tier = HIGH;
+        } else if (healthPercent > 0.25) {
+            tier = MEDIUM;
+        } else {
+            tier = LOW;
+        }
+
+        int filled = (int) Math.ceil(healthPercent * totalBars);
+        filled = Math.max(0, Math.min(totalBars, filled));
+
+        return bars[tier][filled] + CURRENT_PREFIX + (int) currentHealth + MAX_PREFIX + (int) maxHealth;
+    }
+}